@@ -0,0 +1,55 @@
+/*
+ * Pre/post-consent cookie split, the inventory text for the prompt and the inventory fingerprint.
+ */
+package org.example;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CookieDiffBenchmark {
+
+    // Cookies stored after consent; about 40% of them were already there before
+    @Param({"100", "500"})
+    public int cookies;
+
+    private List<App.CookieData> before;
+    private List<App.CookieData> after;
+
+    @Setup
+    public void setup() {
+        before = Fixtures.cookies(cookies * 2 / 5, 0);
+        after = Fixtures.cookies(cookies, 0);
+    }
+
+    // Both cookie store reads merged into the timeline, then the inventory text of the audit prompt
+    @Benchmark
+    public String timelineAndInventory() {
+        CookieTimeline timeline = new CookieTimeline();
+        timeline.start(Fixtures.SITE);
+        List<CookieTimeline.Entry> beforeConsent = timeline.markConsent(before);
+        List<CookieTimeline.Entry> afterConsent = timeline.finish(after);
+        return App.cookieInventory(beforeConsent, afterConsent);
+    }
+
+    @Benchmark
+    public String inventoryFingerprintKey() {
+        return AuditFingerprint.inventoryKey(before, after);
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Benchmark inputs: captured response bodies of a news site, its policy page and a large cookie inventory.
+ * Generated from a fixed seed so every run measures the same bytes; -Dscanner.fixtures=<dir> (-Pjmh.fixtures in Gradle) replaces the
+ * generated bodies with recorded ones (every file in the directory is one response body).
+ */
+package org.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+final class Fixtures {
+
+    static final String SITE = "diario-ejemplo.es";
+    static final String ORIGIN = "https://www." + SITE;
+
+    private static final long SEED = 20240611L;
+
+    private static final String[] SECTIONS = {
+        "espana", "internacional", "economia", "deportes", "cultura", "tecnologia", "ciencia", "opinion", "television", "gente"
+    };
+    private static final String[] WORDS = {
+        "gobierno", "acuerdo", "elecciones", "mercado", "temporada", "estreno", "investigacion", "tribunal", "reforma",
+        "presupuesto", "empresa", "jugador", "festival", "ministro", "europa", "precio", "vivienda", "energia", "clima"
+    };
+    private static final String[] THIRD_PARTIES = {
+        "www.googletagmanager.com", "securepubads.g.doubleclick.net", "connect.facebook.net", "static.chartbeat.com",
+        "cdn.cookielaw.org", "c.amazon-adsystem.com", "sb.scorecardresearch.com", "cdn.taboola.com"
+    };
+    private static final String[] KNOWN_COOKIES = {
+        "_ga", "_gid", "_gat", "_fbp", "IDE", "test_cookie", "OptanonConsent", "OptanonAlertBoxClosed", "euconsent-v2",
+        "__gads", "__gpi", "_chartbeat2", "_cb", "t_gid", "UID", "PHPSESSID", "_pbjs_userid_consent_data", "cto_bundle"
+    };
+
+    private Fixtures() {
+    }
+
+    // Homepage HTML, two script bundles and the JSON of a few API calls, about 1 MB together
+    static List<byte[]> newsBodies() {
+        String recorded = System.getProperty("scanner.fixtures");
+        if (recorded != null && !recorded.isBlank()) {
+            return recordedBodies(Path.of(recorded));
+        }
+        Random random = new Random(SEED);
+        List<byte[]> bodies = new ArrayList<>();
+        bodies.add(homepage(random).getBytes(StandardCharsets.UTF_8));
+        bodies.add(scriptBundle(random, 200_000).getBytes(StandardCharsets.UTF_8));
+        bodies.add(scriptBundle(random, 120_000).getBytes(StandardCharsets.UTF_8));
+        for (int i = 0; i < 3; i++) {
+            bodies.add(apiResponse(random).getBytes(StandardCharsets.UTF_8));
+        }
+        return bodies;
+    }
+
+    // Privacy and cookie policy on one page, with the usual table of every cookie
+    static String policyHtml() {
+        Random random = new Random(SEED + 1);
+        StringBuilder html = new StringBuilder("<!DOCTYPE html><html><head><title>Política de privacidad y cookies</title>");
+        html.append("<script>window.dataLayer=window.dataLayer||[];</script><style>.x{color:red}</style></head><body>");
+        html.append(navigation(random));
+        html.append("<main><h1>Política de privacidad y cookies</h1>");
+        for (int section = 1; section <= 24; section++) {
+            html.append("<h2>").append(section).append(". ").append(sentence(random, 4)).append("</h2>");
+            for (int p = 0; p < 4; p++) {
+                html.append("<p>").append(sentence(random, 60)).append("</p>");
+            }
+            html.append("<ul>");
+            for (int li = 0; li < 5; li++) {
+                html.append("<li>").append(sentence(random, 12)).append("</li>");
+            }
+            html.append("</ul>");
+        }
+        html.append("<h2>Cookies utilizadas</h2><table><tr><th>Nombre</th><th>Proveedor</th><th>Finalidad</th><th>Duración</th></tr>");
+        for (int i = 0; i < 80; i++) {
+            html.append("<tr><td>").append(cookieName(i)).append("</td><td>").append(THIRD_PARTIES[i % THIRD_PARTIES.length])
+                .append("</td><td>").append(sentence(random, 10)).append("</td><td>").append(1 + random.nextInt(24)).append(" meses</td></tr>");
+        }
+        html.append("</table></main>").append(footer()).append("</body></html>");
+        return html.toString();
+    }
+
+    // A cookie inventory of the given size, about a third first-party
+    static List<App.CookieData> cookies(int count, int offset) {
+        List<App.CookieData> cookies = new ArrayList<>(count);
+        for (int i = offset; i < offset + count; i++) {
+            String domain = i % 3 == 0 ? "." + SITE : "." + THIRD_PARTIES[i % THIRD_PARTIES.length].replaceFirst("^[a-z0-9]+\\.", "");
+            cookies.add(new App.CookieData(cookieName(i), domain, i % 4 == 0, i % 2 == 0, "/"));
+        }
+        return cookies;
+    }
+
+    private static String cookieName(int i) {
+        return i < KNOWN_COOKIES.length ? KNOWN_COOKIES[i] : KNOWN_COOKIES[i % KNOWN_COOKIES.length] + "_" + i;
+    }
+
+    private static String homepage(Random random) {
+        StringBuilder html = new StringBuilder(450_000);
+        html.append("<!DOCTYPE html><html lang=\"es\"><head><meta charset=\"utf-8\"><title>Diario Ejemplo</title>");
+        html.append("<link rel=\"canonical\" href=\"").append(ORIGIN).append("/\">");
+        for (String host : THIRD_PARTIES) {
+            html.append("<link rel=\"preconnect\" href=\"https://").append(host).append("\">");
+            html.append("<script async src=\"https://").append(host).append("/tag/js/gpt.js?id=").append(random.nextInt(1_000_000)).append("\"></script>");
+        }
+        html.append("<script type=\"application/ld+json\">{\"@context\":\"https://schema.org\",\"@type\":\"NewsMediaOrganization\",\"url\":\"")
+            .append(ORIGIN).append("/\",\"logo\":\"https://static.").append(SITE).append("/img/logo.png\"}</script>");
+        html.append("</head><body>").append(navigation(random)).append("<main>");
+        for (int i = 0; i < 700; i++) {
+            String url = articleUrl(random);
+            html.append("<article class=\"c c-d\"><figure><a href=\"").append(url).append("\"><img src=\"https://imagenes.")
+                .append(SITE).append("/resizer/").append(Long.toHexString(random.nextLong())).append("/414x233/filters:focal(")
+                .append(random.nextInt(900)).append('x').append(random.nextInt(600)).append(")/photo.jpg\" alt=\"")
+                .append(sentence(random, 8)).append("\"></a></figure><h2 class=\"c_t\"><a href=\"").append(url).append("\">")
+                .append(sentence(random, 12)).append("</a></h2><p class=\"c_d\">").append(sentence(random, 30)).append("</p></article>");
+        }
+        html.append("</main>").append(footer());
+        html.append("<script>window.__PRELOADED_STATE__=").append(apiResponse(random)).append(";</script></body></html>");
+        return html.toString();
+    }
+
+    private static String navigation(Random random) {
+        StringBuilder nav = new StringBuilder("<nav><ul>");
+        for (String section : SECTIONS) {
+            nav.append("<li><a href=\"").append(ORIGIN).append('/').append(section).append("/\">").append(section).append("</a></li>");
+        }
+        nav.append("</ul></nav>");
+        return nav.toString();
+    }
+
+    private static String footer() {
+        return "<footer><a href=\"" + ORIGIN + "/aviso-legal/\">Aviso legal</a><a href=\"" + ORIGIN
+            + "/politica-de-privacidad/\">Política de privacidad</a><a href=\"" + ORIGIN
+            + "/politica-de-cookies/\">Política de cookies</a><a href=\"" + ORIGIN
+            + "/privacy-policy/?lang=en\">Privacy</a><a href=\"https://www.grupo-ejemplo.com/privacidad\">Grupo</a></footer>";
+    }
+
+    // Minified-looking code with URL string literals scattered through it
+    private static String scriptBundle(Random random, int size) {
+        StringBuilder js = new StringBuilder(size + 200);
+        while (js.length() < size) {
+            js.append("function ").append(identifier(random)).append("(e,t){var n=e.").append(identifier(random))
+                .append("||{};return t&&(n.").append(identifier(random)).append("=t),n}");
+            if (random.nextInt(4) == 0) {
+                js.append("var ").append(identifier(random)).append("=\"https://");
+                js.append(random.nextBoolean() ? "www." + SITE + "/api/v" + random.nextInt(3) + "/" + identifier(random)
+                    : THIRD_PARTIES[random.nextInt(THIRD_PARTIES.length)] + "/collect?v=" + random.nextInt(100));
+                js.append("\";");
+            }
+        }
+        return js.toString();
+    }
+
+    private static String apiResponse(Random random) {
+        StringBuilder json = new StringBuilder("{\"items\":[");
+        for (int i = 0; i < 60; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(random.nextInt(10_000_000)).append(",\"url\":\"").append(articleUrl(random))
+                .append("\",\"title\":\"").append(sentence(random, 10)).append("\"}");
+        }
+        return json.append("]}").toString();
+    }
+
+    private static String articleUrl(Random random) {
+        return ORIGIN + "/" + SECTIONS[random.nextInt(SECTIONS.length)] + "/2024-0" + (1 + random.nextInt(9)) + "-"
+            + (10 + random.nextInt(18)) + "/" + WORDS[random.nextInt(WORDS.length)] + "-" + WORDS[random.nextInt(WORDS.length)]
+            + "-" + random.nextInt(1_000_000) + ".html";
+    }
+
+    private static String sentence(Random random, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+
+    private static String identifier(Random random) {
+        return Character.toString('a' + random.nextInt(26)) + random.nextInt(100);
+    }
+
+    private static List<byte[]> recordedBodies(Path directory) {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<byte[]> bodies = new ArrayList<>();
+            for (Path file : files.sorted().toList()) {
+                bodies.add(Files.readAllBytes(file));
+            }
+            return bodies;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read recorded fixtures from " + directory, e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Keyword matching of harvested URLs against the bundled cookie/privacy keyword table.
+ */
+package org.example;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KeywordBenchmark {
+
+    private String[] urls;
+    private KeywordClassifier classifier;
+
+    @Setup
+    public void setup() throws IOException {
+        classifier = KeywordClassifier.load();
+        UrlExtractor extractor = new UrlExtractor();
+        for (byte[] body : Fixtures.newsBodies()) {
+            extractor.scan(new ByteArrayInputStream(body));
+        }
+        urls = extractor.urls().toArray(new String[0]);
+    }
+
+    // One pass over every URL of a domain; the scores are summed so nothing is optimized away
+    @Benchmark
+    public int classifyAll() {
+        int score = 0;
+        for (String url : urls) {
+            KeywordClassifier.Classification classification = classifier.classify(url);
+            score += classification.cookieScore() + classification.privacyScore();
+        }
+        return score;
+    }
+}
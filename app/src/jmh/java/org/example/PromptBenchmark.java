@@ -0,0 +1,64 @@
+/*
+ * Policy HTML reduction and audit prompt assembly, including the chunk split of map-reduce audits.
+ */
+package org.example;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PromptBenchmark {
+
+    private String policyHtml;
+    private DomainScan scan;
+
+    @Setup
+    public void setup() {
+        policyHtml = Fixtures.policyHtml();
+        scan = new DomainScan(Fixtures.ORIGIN, "www." + Fixtures.SITE);
+        App.reducePolicies(withHtml(scan, policyHtml), 40_000);
+
+        CookieTimeline timeline = new CookieTimeline();
+        timeline.start(Fixtures.SITE);
+        scan.cookieInventory = App.cookieInventory(
+            timeline.markConsent(Fixtures.cookies(80, 0)), timeline.finish(Fixtures.cookies(200, 0)));
+    }
+
+    @Benchmark
+    public String reducePolicyHtml() {
+        return PolicyText.fromHtml(policyHtml);
+    }
+
+    @Benchmark
+    public String assemblePrompt() {
+        return App.auditPrompt(App.auditDocuments(scan), scan.cookieInventory);
+    }
+
+    @Benchmark
+    public List<String> splitIntoChunks() {
+        return ChunkedAuditor.split(scan.privacyText, 2_000, 100);
+    }
+
+    private static DomainScan withHtml(DomainScan scan, String html) {
+        scan.targetCookieUrl = Fixtures.ORIGIN + "/politica-de-cookies/";
+        scan.targetPrivacyUrl = scan.targetCookieUrl;
+        scan.privacyHtml = html;
+        scan.cookiesHtml = html;
+        return scan;
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * URL harvesting from captured response bodies and the policy candidate ranking built on it.
+ */
+package org.example;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UrlHarvestBenchmark {
+
+    private List<byte[]> bodies;
+    private List<String> urls;
+    private KeywordClassifier classifier;
+
+    @Setup
+    public void setup() throws IOException {
+        bodies = Fixtures.newsBodies();
+        classifier = KeywordClassifier.load();
+        urls = new ArrayList<>(extractUrls());
+    }
+
+    // All bodies of one domain through one extractor, as the capture stage does
+    @Benchmark
+    public Set<String> extractUrls() throws IOException {
+        UrlExtractor extractor = new UrlExtractor();
+        for (byte[] body : bodies) {
+            extractor.scan(new ByteArrayInputStream(body));
+        }
+        return extractor.urls();
+    }
+
+    // Classification of every harvested URL, ranking and the candidate log lines
+    @Benchmark
+    public String buildCandidates() {
+        PolicyCandidates candidates = new PolicyCandidates(Fixtures.SITE, classifier);
+        for (String url : urls) {
+            candidates.offer(url);
+        }
+        return candidates.bestCookieUrl() + candidates.bestPrivacyUrl()
+            + PolicyCandidates.describe(candidates.cookie()) + PolicyCandidates.describe(candidates.privacy());
+    }
+}
@@ -7,85 +7,104 @@ import java.nio.charset.StandardCharsets;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import com.google.genai.Client;
-import com.google.genai.types.GenerateContentResponse;
-import java.util.regex.*;
 import java.util.*;
 import java.net.*;
 import java.time.Duration;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import org.openqa.selenium.*;
-import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.chrome.ChromeOptions;
 import org.openqa.selenium.devtools.DevTools;
 import org.openqa.selenium.devtools.HasDevTools;
-import org.openqa.selenium.devtools.NetworkInterceptor;
 import org.openqa.selenium.devtools.v141.browser.Browser;
 import org.openqa.selenium.devtools.v141.network.Network;
 import org.openqa.selenium.devtools.v141.performance.Performance;
 import org.openqa.selenium.devtools.v141.performance.model.Metric;
 import org.openqa.selenium.remote.http.*;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import org.openqa.selenium.chromium.HasCdp;
 import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.sql.Statement;
-import java.sql.ResultSet;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 
 
 public class App {
 
-    // Keywords for cookie policy URLs (multiple EU languages)
-    private static final List<String> COOKIE_KEYWORDS = Arrays.asList(
-        // Español
-        "cookies", "cookie", "politica-de-cookies", "política-de-cookies",
-        // Inglés
-        "cookie-policy", "cookies-policy",
-        // Francés
-        "politique-de-cookies", "cookies-et-traceurs",
-        // Alemán
-        "cookie-richtlinie",
-        // Italiano
-        "cookie-policy", "informativa-cookie",
-        // Portugués
-        "politica-de-cookies", "política-de-cookies"
-    );
-
-    // Keywords for privacy policy / data protection URLs (multiple EU languages)
-    private static final List<String> PRIVACY_KEYWORDS = Arrays.asList(
-        // Español
-        "privacidad", "politica-de-privacidad", "política-de-privacidad", "proteccion-de-datos",
-        // Inglés
-        "privacy", "privacy-policy", "data-protection",
-        // Francés
-        "confidentialite", "politique-de-confidentialite", "donnees-personnelles",
-        // Alemán
-        "datenschutz", "datenschutzerklarung",
-        // Italiano
-        "privacy", "informativa-privacy", "protezione-dei-dati",
-        // Portugués
-        "privacidade", "politica-de-privacidade",
-        // Neerlandés
-        "privacyverklaring", "gegevensbescherming",
-        // Sueco
-        "integritet", "personuppgifter"
-    );
-
     private static final String URL = "jdbc:mysql://127.0.0.1:3306/TMA?useSSL=false&allowPublicKeyRetrieval=true&serverTimezone=UTC";
     private static final String USER = "root";
 
+    // Shared connection pool; rewriteBatchedStatements turns batched inserts into multi-row INSERTs
+    private static HikariDataSource createDataSource(String databasePassword, int poolSize) {
+        HikariConfig hikariConfig = new HikariConfig();
+        hikariConfig.setJdbcUrl(URL + "&rewriteBatchedStatements=true");
+        hikariConfig.setUsername(USER);
+        hikariConfig.setPassword(databasePassword);
+        hikariConfig.setMaximumPoolSize(poolSize);
+        hikariConfig.setPoolName("scanner-db");
+        return new HikariDataSource(hikariConfig);
+    }
+
+    // Offline commands:
+    //   batch-run <requests.jsonl> <results.jsonl>       evaluates a batch file locally with the configured LLM
+    //   batch-ingest <results.jsonl> [manifest.jsonl]    scores batch results and stores them in host_results
+    //   backfill-audits                                  fills the normalized audit tables from older host_results rows
+    static void runBatchCommand(String[] args, ScannerConfig config, String geminiApiKey, String databasePassword) throws Exception {
+        if (args[0].equals("batch-run") && args.length == 3) {
+            if (geminiApiKey == null && !config.llmBackend.equals("stub")) {
+                System.out.println("Environment variable GEMINI_API_KEY has not been exported. It is not possible to proceed.\nTo set it use this command 'export GEMINI_API_KEY=<key>'");
+                return;
+            }
+            try (RateLimitedLlm llm = createLlm(config, geminiApiKey)) {
+                BatchAudit.runLocally(llm, Path.of(args[1]), Path.of(args[2]));
+                System.out.println("LLM usage: " + llm.metrics().summary());
+            }
+        } else if (args[0].equals("batch-ingest") && (args.length == 2 || args.length == 3)) {
+            if (databasePassword == null) {
+                System.out.println("Environment variable DATABASE_PASSWORD has not been exported. It is not possible to proceed.\nTo set it use this command 'export DATABASE_PASSWORD=<database_password>'");
+                return;
+            }
+            Path results = Path.of(args[1]);
+            Path manifest = args.length == 3 ? Path.of(args[2]) : BatchAudit.manifestFor(Path.of(config.batchFile.isEmpty() ? "audit-batch.jsonl" : config.batchFile));
+            try (HikariDataSource dataSource = createDataSource(databasePassword, config.databasePoolSize)) {
+                ResultWriter writer = new ResultWriter(dataSource, new ProcessedHosts(), null, null, config.writeBatchSize, config.writeFlushMillis);
+                BatchAudit.ingest(results, manifest, new ComplianceReport(CookieClassifier.load()), writer, dataSource);
+            }
+        } else if (args[0].equals("backfill-audits") && args.length == 1) {
+            if (databasePassword == null) {
+                System.out.println("Environment variable DATABASE_PASSWORD has not been exported. It is not possible to proceed.\nTo set it use this command 'export DATABASE_PASSWORD=<database_password>'");
+                return;
+            }
+            try (HikariDataSource dataSource = createDataSource(databasePassword, 2)) {
+                AuditRecord.backfill(dataSource, config.writeBatchSize);
+            }
+        } else {
+            System.out.println("Usage: batch-run <requests.jsonl> <results.jsonl> | batch-ingest <results.jsonl> [manifest.jsonl] | backfill-audits");
+        }
+    }
+
+    static RateLimitedLlm createLlm(ScannerConfig config, String geminiApiKey) {
+        LlmClient backend = config.llmBackend.equals("stub")
+            ? new StubLlm(config.llmStubLatencyMillis, config.llmStubErrorPercent)
+            : new GeminiLlm(geminiApiKey, config.llmModel, config.llmTimeoutMillis);
+        return new RateLimitedLlm(backend, config.llmConcurrency, config.llmRequestsPerMinute,
+            config.llmTokensPerMinute, config.llmMaxRetries);
+    }
+
     public static void main(String[] args) throws Exception {
 
         String geminiApiKey = System.getenv("GEMINI_API_KEY");
         String chromedriverAbsolutePath = System.getenv("CHROMEDRIVER_ABSOLUTE_PATH");
         String databasePassword = System.getenv("DATABASE_PASSWORD");
+        ScannerConfig config = ScannerConfig.fromEnvironment();
+        boolean batchMode = !config.batchFile.isEmpty();
+
+        if (args.length > 0) {
+            runBatchCommand(args, config, geminiApiKey, databasePassword);
+            return;
+        }
 
-        if (geminiApiKey == null) {
+        // The offline stub needs no key, and neither does a scan that only writes a batch file
+        if (geminiApiKey == null && !config.llmBackend.equals("stub") && !batchMode) {
             System.out.println("Environment variable GEMINI_API_KEY has not been exported. It is not possible to proceed.\nTo set it use this command 'export GEMINI_API_KEY=<key>'");
             return;
         }
@@ -112,439 +131,376 @@ public class App {
             return;
         }
 
-        System.setProperty("webdriver.chrome.driver", chromedriverAbsolutePath);
+        // Load every already processed hostname once, so skip decisions need no further DB round trips
+        try (HikariDataSource dataSource = createDataSource(databasePassword, config.databasePoolSize)) {
 
-        ChromeOptions options = new ChromeOptions();
-        options.addArguments("--headless=new");
-        options.addArguments("--disable-gpu");
-        options.addArguments("--window-size=1920,1080");
-        options.addArguments("--no-sandbox");
-        options.addArguments("--disable-dev-shm-usage");
-
-        WebDriver driver = new ChromeDriver(options);
+            ProcessedHosts processed;
+            AuditHistory history = AuditHistory.empty();
+            try (Connection connection = dataSource.getConnection()) {
+                processed = ProcessedHosts.load(connection);
+                if (config.rescan) {
+                    history = AuditHistory.load(connection);
+                }
+            } catch (SQLException e) {
+                System.err.println("Database error while loading already processed domains. It is not possible to proceed.");
+                e.printStackTrace();
+                return;
+            }
+            System.out.println("Domains already in database: " + processed.size());
 
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(15));
+            if (config.rescan) {
+                // Processed domains are scanned again; the audit stage decides whether anything changed
+                System.out.println("Re-scan mode: " + history.size() + " domain(s) have a previous result to compare against");
+                domains = new ArrayList<>(new LinkedHashSet<>(domains));
+            } else {
+                domains = processed.pending(domains);
+            }
+            if (domains.isEmpty()) {
+                System.out.println("Every domain in domains.txt has already been processed.");
+                return;
+            }
 
-        CopyOnWriteArrayList<Contents.Supplier> content = new CopyOnWriteArrayList<>();
+            // The journal remembers what earlier, interrupted runs already did with these domains.
+            // In distributed mode the shared scan_queue table does that for every scanner process.
+            try (ScanMetrics metrics = new ScanMetrics();
+                 WorkJournal journal = config.distributed ? null : new WorkJournal(Path.of(config.journalFile), metrics);
+                 ScanQueue queue = config.distributed
+                     ? new ScanQueue(dataSource, config.nodeId, config.leaseSeconds, config.maxAttempts, config.rescan, metrics)
+                     : null) {
+                if (queue != null) {
+                    System.out.println("Distributed mode as " + queue.nodeId() + ": " + queue.enqueue(domains)
+                        + " new domain(s) added to the scan queue");
+                } else {
+                    domains = journal.plan(domains, config.maxAttempts);
+                    if (domains.isEmpty()) {
+                        System.out.println("Nothing left to do for this run. Delete " + config.journalFile + " to start a new one.");
+                        return;
+                    }
+                }
+                WorkTracker tracker = queue != null ? queue : journal;
 
-        Filter myFilter = next -> {
-            return req -> {
-                HttpResponse res = next.execute(req);
-                //if (res.getHeader("Content-Length") != null && Integer.parseInt(res.getHeader("Content-Length")) != 0) {
-                    content.add(res.getContent());
-                //}
-                return res;
-            };
-        };
+                System.setProperty("webdriver.chrome.driver", chromedriverAbsolutePath);
+                if (config.metricsPort > 0) {
+                    metrics.serve(config.metricsPort);
+                }
 
-        NetworkInterceptor ignored = new NetworkInterceptor(driver, myFilter);
+                KeywordClassifier classifier = KeywordClassifier.load();
+                ComplianceReport report = new ComplianceReport(CookieClassifier.load());
+                ResultWriter writer = new ResultWriter(dataSource, processed, tracker, metrics, config.writeBatchSize, config.writeFlushMillis);
+                PolicyFetcher fetcher = new PolicyFetcher(config.fetchMaxBytes, Duration.ofMillis(config.fetchTimeoutMillis),
+                    config.policyCacheDir.isEmpty() ? null : Path.of(config.policyCacheDir));
+                PolicyDiscovery discovery = config.discovery
+                    ? new PolicyDiscovery(classifier, config.fetchMaxBytes, Duration.ofMillis(config.discoveryTimeoutMillis))
+                    : null;
+
+                // In batch mode the LLM is never called during the scan. A resumed journal (or the scan queue, which
+                // outlives every run) keeps appending to the batch file, since earlier domains are already done.
+                try (LlmClient llm = batchMode
+                         ? prompt -> { throw new IllegalStateException("No LLM calls in batch audit mode"); }
+                         : createLlm(config, geminiApiKey);
+                     BatchAudit batch = batchMode ? new BatchAudit(Path.of(config.batchFile), journal == null || journal.resumed()) : null;
+                     BrowserPool pool = new BrowserPool(config)) {
+                    if (llm instanceof RateLimitedLlm limited) {
+                        metrics.track(limited.metrics());
+                    }
+                    ScanPipeline pipeline = new ScanPipeline(config, pool, llm, classifier, processed, history, writer, fetcher,
+                        discovery, report, batch, tracker, metrics);
+                    if (queue != null) {
+                        pipeline.run(queue);
+                    } else {
+                        pipeline.run(domains);
+                    }
+                    if (llm instanceof RateLimitedLlm limited) {
+                        System.out.println("LLM usage: " + limited.metrics().summary());
+                    }
+                }
+                System.out.println(queue != null ? "Scan queue: " + queue.summary() : "Work journal: " + journal.summary());
+                if (!config.metricsFile.isEmpty()) {
+                    metrics.writeSummary(Path.of(config.metricsFile), domains.size());
+                }
+            }
+        }
 
-        Client client = new Client();
+        Runtime.getRuntime().exec("rm -rf privacidad");
+        Runtime.getRuntime().exec("rm -rf cookies");
+    }
 
-        // Loop over all domains from domains.txt
-        for (String domain : domains) {
 
-            System.out.println("\n\n========================================");
-            System.out.println("Processing domain: " + domain);
-            System.out.println("========================================\n");
+    // Scan state for one line of domains.txt; null when it is not a URL with a host
+    static DomainScan newScan(String domain) {
+        URI uri;
+        try {
+            uri = new URI(domain);
+        } catch (URISyntaxException e) {
+            System.out.println("Skipping invalid domain (URI syntax error): " + domain);
+            return null;
+        }
 
-            System.out.println("Checking database for domain: " + domain);
+        String host = uri.getHost(); // e.g. "www.elmundo.es"
+        if (host == null) {
+            System.out.println("Skipping invalid domain (no host found): " + domain);
+            return null;
+        }
 
-            // Check if this domain was already processed
-            boolean alreadyProcessed = false;
+        return new DomainScan(domain, host);
+    }
 
-            try (Connection connection = DriverManager.getConnection(URL, USER, databasePassword)) {
+    // Browser stage: load the domain, record cookies around the consent click and, unless the discovery stage
+    // already found them, pick the policy URLs from the captured responses. Null when there are none.
+    static DomainScan captureDomain(BrowserSession session, DomainScan scan, KeywordClassifier classifier) throws IOException, InterruptedException {
 
-                String checkQuery = "SELECT 1 FROM host_results WHERE hostname = ? LIMIT 1";
-                try (PreparedStatement checkStmt = connection.prepareStatement(checkQuery)) {
-                    checkStmt.setString(1, domain);
-                    try (ResultSet rs = checkStmt.executeQuery()) {
-                        if (rs.next()) {
-                            alreadyProcessed = true;
-                        }
-                    }
-                }
+        // Fresh browser context and empty capture buffer for this domain
+        session.reset();
 
-            } catch (SQLException e) {
-                System.err.println("Database error while checking existing domain: " + domain);
-                e.printStackTrace();
-                continue;
-            }
+        String domain = scan.domain;
+        String short_domain = scan.shortDomain;
 
-            if (alreadyProcessed) {
-                System.out.println("Domain FOUND in database, skipping processing: " + domain);
-                continue;
-            }
+        // Navigate to the domain
+        long navigateStart = System.nanoTime();
+        session.load(domain, short_domain);
+        scan.stageMillis.put("navigate", (System.nanoTime() - navigateStart) / 1_000_000);
 
-            System.out.println("Domain NOT found in database, proceeding with analysis: " + domain);
+        // Cookie capture & consent automation: the timeline records every Set-Cookie as it happens,
+        // the cookie store is read once before and once after the consent click
+        List<CookieTimeline.Entry> timelineBefore = session.cookiesBeforeConsent();
+        System.out.println("Cookies captured BEFORE consent: " + timelineBefore.size());
 
-            // Clear cookies and storage to ensure a clean session for this domain
-            try {
-                driver.manage().deleteAllCookies();
-                ((org.openqa.selenium.JavascriptExecutor) driver).executeScript(
-                    "window.localStorage.clear(); window.sessionStorage.clear();");
-            } catch (Exception e) {
-                System.out.println("Warning: Could not clear updated browser state: " + e.getMessage());
-            }
+        long consentStart = System.nanoTime();
+        session.answerConsent(ConsentBanner.Action.ACCEPT);
+        scan.stageMillis.put("consent", (System.nanoTime() - consentStart) / 1_000_000);
 
+        List<CookieTimeline.Entry> timelineAfter = session.cookiesAfterConsent();
+        System.out.println("Cookies captured AFTER consent: " + timelineAfter.size());
 
-            // Clear previous captured contents
-            content.clear();
+        scan.cookieInventory = cookieInventory(timelineBefore, timelineAfter);
+        scan.cookiesBefore = timelineBefore.stream().map(CookieTimeline.Entry::cookie).toList();
+        scan.cookiesAfter = timelineAfter.stream().map(CookieTimeline.Entry::cookie).toList();
 
-            URI uri;
-            try {
-                uri = new URI(domain);
-            } catch (URISyntaxException e) {
-                System.out.println("Skipping invalid domain (URI syntax error): " + domain);
-                continue;
-            }
+        // ------------------------------------------------
 
-            String host = uri.getHost(); // e.g. "www.elmundo.es"
-            if (host == null) {
-                System.out.println("Skipping invalid domain (no host found): " + domain);
-                continue;
-            }
+        if (!scan.targetCookieUrl.isEmpty()) {
+            return scan;
+        }
 
-            String domain_without_protocol = host + "/";
-            String short_domain = host.startsWith("www.") ? host.substring(4) : host;
+        // Stream every captured body through one extractor; URLs come back cut and deduplicated
+        UrlExtractor extractor = new UrlExtractor();
+        for (CaptureBuffer.Body body : session.capture().bodies()) {
+            extractor.scan(body.open());
+        }
 
-            // Navigate to the domain
-            driver.get(domain);
+        // Classify every same-site URL in one automaton pass and rank the candidates by relevance
+        PolicyCandidates candidates = new PolicyCandidates(short_domain, classifier);
+        for (String url : extractor.urls()) {
+            candidates.offer(url);
+        }
 
-            try {
-                wait.until(_d -> content.size() > 150);
-            } catch (org.openqa.selenium.TimeoutException e) {
-                System.out.println("\nTimeout while waiting for network activity on: " + domain);
-                System.out.println("Number of caught files: " + content.size());
-            }
+        return selectTargets(scan, candidates) ? scan : null; // pasa al siguiente dominio
+    }
 
-            // Cookie capture & consent automation
-            List<CookieData> cookiesBefore = getCookies(driver);
-            System.out.println("Cookies captured BEFORE consent: " + cookiesBefore.size());
-
-            detectAndClickConsent(driver);
-            
-            List<CookieData> cookiesAfter = getCookies(driver);
-            System.out.println("Cookies captured AFTER consent: " + cookiesAfter.size());
-
-            StringBuilder cookieInventoryBuilder = new StringBuilder();
-            cookieInventoryBuilder.append("=== COOKIES SET BEFORE CONSENT (VIOLATIONS) ===\n");
-            cookieInventoryBuilder.append("Total Count: ").append(cookiesBefore.size()).append("\n");
-            cookieInventoryBuilder.append("These cookies were detected BEFORE the user clicked any consent button.\n");
-            cookieInventoryBuilder.append("For the JSON output, mark these with \"set_before_consent\": true\n\n");
-            for(CookieData c : cookiesBefore) {
-                cookieInventoryBuilder.append("- ").append(c.toString()).append("\n");
-            }
-            
-            cookieInventoryBuilder.append("\n=== COOKIES SET AFTER CONSENT (COMPLIANT) ===\n");
-            cookieInventoryBuilder.append("Total Count: ").append(cookiesAfter.size()).append("\n");
-            cookieInventoryBuilder.append("These cookies were detected AFTER the user clicked the consent button.\n");
-            cookieInventoryBuilder.append("For the JSON output, mark NEW cookies (not in the above list) with \"set_before_consent\": false\n\n");
-            for(CookieData c : cookiesAfter) {
-                // Check if this cookie was already present before
-                boolean presentBefore = false;
-                for(CookieData b : cookiesBefore) {
-                    if(b.name.equals(c.name) && b.domain.equals(c.domain)) {
-                        presentBefore = true;
-                        break;
-                    }
-                }
-                if (!presentBefore) {
-                     cookieInventoryBuilder.append("- ").append(c.toString()).append(" (NEW - triggered by consent)\n");
-                }
-            }
+    // Sets the best cookie and privacy URL of the scan; false when there is no candidate at all
+    static boolean selectTargets(DomainScan scan, PolicyCandidates candidates) {
+        // Debug:
+        System.out.println("Cookie candidates for " + scan.domain + ": " + PolicyCandidates.describe(candidates.cookie()));
+        System.out.println("Privacy candidates for " + scan.domain + ": " + PolicyCandidates.describe(candidates.privacy()));
 
-            String finalCookieInventory = cookieInventoryBuilder.toString();
+        if (candidates.isEmpty()) {
+            System.out.println("No candidate URLs for cookies or privacy on domain: " + scan.domain);
+            return false;
+        }
 
-            // ------------------------------------------------
+        // Heuristic URL Selection (Bypassing Gemini for URL identification)
+        String targetCookieUrl = candidates.bestCookieUrl();
+        String targetPrivacyUrl = candidates.bestPrivacyUrl();
 
-            List<String> urls = new ArrayList<>();
+        // Hardcode fallback if absolutely nothing found (though the isEmpty check above should prevent this)
+        if (targetCookieUrl.isEmpty()) targetCookieUrl = "https://" + scan.shortDomain;
+        if (targetPrivacyUrl.isEmpty()) targetPrivacyUrl = "https://" + scan.shortDomain;
 
-            for (int i = 0; i < content.size(); i++) {
-                String result = new String(content.get(i).get().readAllBytes());
+        scan.targetCookieUrl = targetCookieUrl;
+        scan.targetPrivacyUrl = targetPrivacyUrl;
+        return true;
+    }
 
-                // Regex to match https:// followed by any non-space characters
-                String regex = "https://[^\\s]+";
 
-                Pattern pattern = Pattern.compile(regex);
-                Matcher matcher = pattern.matcher(result);
+    // Cookie inventory for the audit prompt; the timeline already marks which cookies only came with the click
+    static String cookieInventory(List<CookieTimeline.Entry> timelineBefore, List<CookieTimeline.Entry> timelineAfter) {
+        StringBuilder cookieInventoryBuilder = new StringBuilder();
+        cookieInventoryBuilder.append("=== COOKIES SET BEFORE CONSENT (VIOLATIONS) ===\n");
+        cookieInventoryBuilder.append("Total Count: ").append(timelineBefore.size()).append("\n");
+        cookieInventoryBuilder.append("These cookies were detected BEFORE the user clicked any consent button.\n\n");
+        for (CookieTimeline.Entry e : timelineBefore) {
+            cookieInventoryBuilder.append("- ").append(e).append("\n");
+        }
 
-                while (matcher.find()) {
-                    urls.add(matcher.group());
-                }
+        cookieInventoryBuilder.append("\n=== COOKIES SET AFTER CONSENT (COMPLIANT) ===\n");
+        cookieInventoryBuilder.append("Total Count: ").append(timelineAfter.size()).append("\n");
+        cookieInventoryBuilder.append("These cookies were detected AFTER the user clicked the consent button.\n\n");
+        for (CookieTimeline.Entry e : timelineAfter) {
+            if (!e.beforeConsent()) {
+                 cookieInventoryBuilder.append("- ").append(e).append(" (NEW - triggered by consent)\n");
             }
+        }
+        return cookieInventoryBuilder.toString();
+    }
 
-            String cookieUrlsSeparatedByCommas = "";
-            String privacyUrlsSeparatedByCommas = "";
 
-            // Filter and build URL list for cookies/privacy on this domain
-            for (String url : urls) {
+    // Fetch stage: download the selected cookie and privacy policy pages concurrently
+    static DomainScan fetchPolicies(PolicyFetcher fetcher, DomainScan scan) {
 
-                String[] cuttedUrl = url.split("[\"'\\\\]");
-                String normalizedUrl = cuttedUrl[0].toLowerCase();
+        String targetCookieUrl = scan.targetCookieUrl;
+        String targetPrivacyUrl = scan.targetPrivacyUrl;
 
-                // Only consider URLs from this domain
-                if (normalizedUrl.contains(short_domain)) {
+        String privacyHtml = "";
+        String cookiesHtml = "";
 
-                    boolean isCookie = false;
-                    for (String keyword : COOKIE_KEYWORDS) {
-                        if (normalizedUrl.contains(keyword)) {
-                            isCookie = true;
-                            break;
-                        }
-                    }
+        try {
+            System.out.println("Fetching content directly from URL: " + targetCookieUrl);
+            System.out.println("Fetching content directly from URL: " + targetPrivacyUrl);
+            // The same page is often both the cookie and the privacy policy; it is only downloaded once
+            Map<String, String> bodies = fetcher.fetchAll(List.of(targetCookieUrl, targetPrivacyUrl));
+            cookiesHtml = bodies.get(targetCookieUrl);
+            privacyHtml = bodies.get(targetPrivacyUrl);
 
-                    boolean isPrivacy = false;
-                    for (String keyword : PRIVACY_KEYWORDS) {
-                        if (normalizedUrl.contains(keyword)) {
-                            isPrivacy = true;
-                            break;
-                        }
-                    }
+            if (cookiesHtml.isEmpty()) System.out.println("WARNING: Fetched cookies content is empty.");
+            if (privacyHtml.isEmpty()) System.out.println("WARNING: Fetched privacy content is empty.");
 
-                    if (isCookie) {
-                        cookieUrlsSeparatedByCommas = cookieUrlsSeparatedByCommas + cuttedUrl[0] + ", ";
-                    }
 
-                    if (isPrivacy) {
-                        privacyUrlsSeparatedByCommas = privacyUrlsSeparatedByCommas + cuttedUrl[0] + ", ";
-                    }
-                }
-            }
+        } catch (Exception e) {
+            System.err.println("Error fetching policy content: " + e.getMessage());
+            e.printStackTrace();
+        }
 
-            // Debug:
-            System.out.println("Cookie candidates for " + domain + ": " + cookieUrlsSeparatedByCommas);
-            System.out.println("Privacy candidates for " + domain + ": " + privacyUrlsSeparatedByCommas);
+        scan.cookiesHtml = cookiesHtml;
+        scan.privacyHtml = privacyHtml;
+        return scan;
+    }
 
-            if (cookieUrlsSeparatedByCommas.isEmpty() && privacyUrlsSeparatedByCommas.isEmpty()) {
-                System.out.println("No candidate URLs for cookies or privacy on domain: " + domain);
-                continue; // pasa al siguiente dominio del for grande
-            }
-            if (!cookieUrlsSeparatedByCommas.isEmpty()) {
-                cookieUrlsSeparatedByCommas =
-                        cookieUrlsSeparatedByCommas.substring(0, cookieUrlsSeparatedByCommas.length() - 2);
-            }
-            if (!privacyUrlsSeparatedByCommas.isEmpty()) {
-                privacyUrlsSeparatedByCommas =
-                        privacyUrlsSeparatedByCommas.substring(0, privacyUrlsSeparatedByCommas.length() - 2);
-            }
-            ////////////////////////////////////////////////////////////
-
-            // Heuristic URL Selection (Bypassing Gemini for URL identification)
-            
-            String targetCookieUrl = "";
-            String targetPrivacyUrl = "";
-            
-            if (!cookieUrlsSeparatedByCommas.isEmpty()) {
-                targetCookieUrl = cookieUrlsSeparatedByCommas.split(",")[0].trim();
-            } else if (!privacyUrlsSeparatedByCommas.isEmpty()) {
-                 // Fallback
-                 targetCookieUrl = privacyUrlsSeparatedByCommas.split(",")[0].trim();
-            }
-            
-            if (!privacyUrlsSeparatedByCommas.isEmpty()) {
-                 targetPrivacyUrl = privacyUrlsSeparatedByCommas.split(",")[0].trim();
-            } else if (!cookieUrlsSeparatedByCommas.isEmpty()) {
-                // Fallback
-                targetPrivacyUrl = cookieUrlsSeparatedByCommas.split(",")[0].trim();
-            }
-            
-            // Hardcode fallback if absolutely nothing found (though the loop 'continue' above should prevent this)
-            if (targetCookieUrl.isEmpty()) targetCookieUrl = "https://" + short_domain;
-            if (targetPrivacyUrl.isEmpty()) targetPrivacyUrl = "https://" + short_domain;
 
-            String privacyHtml = "";
-            String cookiesHtml = "";
+    // Reduce stage: turn both policies into plain text and fit them into the prompt's token budget
+    static DomainScan reducePolicies(DomainScan scan, int tokenBudget) {
+        String privacyText = PolicyText.fromHtml(scan.privacyHtml);
+        String cookiesText = PolicyText.fromHtml(scan.cookiesHtml);
+
+        // Many sites keep both policies on one page; it is sent only once
+        scan.samePolicyPage = scan.targetCookieUrl.equals(scan.targetPrivacyUrl) || privacyText.equals(cookiesText);
+        if (scan.samePolicyPage) {
+            scan.privacyText = PolicyText.truncate(privacyText, tokenBudget);
+            scan.cookiesText = "";
+        } else {
+            String[] fitted = PolicyText.fitBudget(privacyText, cookiesText, tokenBudget);
+            scan.privacyText = fitted[0];
+            scan.cookiesText = fitted[1];
+        }
 
-            try {
-                System.out.println("Fetching content directly from URL: " + targetCookieUrl);
-                cookiesHtml = fetchContent(targetCookieUrl);
-                
-                System.out.println("Fetching content directly from URL: " + targetPrivacyUrl);
-                privacyHtml = fetchContent(targetPrivacyUrl);
+        System.out.println("Policy text for " + scan.domain + ": ~"
+            + PolicyText.estimateTokens(scan.privacyText + scan.cookiesText) + " tokens from "
+            + (scan.privacyHtml.length() + scan.cookiesHtml.length()) + " HTML chars"
+            + (scan.samePolicyPage ? " (one page for both policies)" : ""));
+        return scan;
+    }
 
-                if (cookiesHtml.isEmpty()) System.out.println("WARNING: Fetched cookies content is empty.");
-                if (privacyHtml.isEmpty()) System.out.println("WARNING: Fetched privacy content is empty.");
 
+    // Audit stage: evaluate both policies and the cookie inventory with Gemini
+    static DomainScan auditPolicies(LlmClient llm, DomainScan scan) throws InterruptedException {
 
-            } catch (Exception e) {
-                System.err.println("Error fetching policy content: " + e.getMessage());
-                e.printStackTrace();
-            }
+        String domain = scan.domain;
+        LlmClient.Response responseGDPR = llm.generate(auditPrompt(auditDocuments(scan), scan.cookieInventory));
 
+        System.out.println();
+        System.out.println("Gemini GDPR response for domain " + domain + ": " + responseGDPR.text());
 
-            String promptArray[] = new String[3];
+        scan.auditResult = responseGDPR.text();
+        return scan;
+    }
 
-            promptArray[0] = """
 
-            Role: Act as a Senior GDPR and ePrivacy Compliance Auditor.
+    // Both policies as they are embedded in a single audit prompt
+    static String auditDocuments(DomainScan scan) {
+        if (scan.samePolicyPage) {
+            return "\nPrivacy Policy and Cookie Policy (both are published on the same page): [" + scan.privacyText + "]";
+        }
+        return "\nPrivacy Policy: [" + scan.privacyText + "]" +
+               "\nCookie Policy: [" + scan.cookiesText + "]";
+    }
 
-            Task: You will analyze the content of two provided legal documents in HTML format (Privacy Policy and Cookie Policy) against a specific compliance checklist and output the results in a strict JSON format.
 
-            Input Data:
-            
-            """;
+    // Full audit prompt around the given policy text; also used for the chunks of map-reduce audits
+    static String auditPrompt(String documents, String finalCookieInventory) {
 
-            promptArray[1] =
-                    "\nPrivacy Policy HTML file: [" + privacyHtml + "]" +
-                    "\nCookie Policy HTML file: [" + cookiesHtml + "]" +
-                    "\nPrivacy Policy HTML file: [" + privacyHtml + "]" +
-                    "\nCookie Policy HTML file: [" + cookiesHtml + "]" +
-                    "\n\nTECHNICAL COOKIE SCAN RESULTS (Real-time data from browser):\n" + finalCookieInventory;
+        String promptArray[] = new String[3];
 
-            promptArray[2] = """
+        promptArray[0] = """
 
-            Instructions:
+        Role: Act as a Senior GDPR and ePrivacy Compliance Auditor.
 
-            Read and analyze the content of the documents provided above.
+        Task: You will analyze the text of the provided legal documents (Privacy Policy and Cookie Policy, extracted from their web pages; headings are marked with "##") against a specific compliance checklist and output the results in a strict JSON format.
 
-            Evaluate the "Audit Checklist" questions below.
+        Input Data:
+        
+        """;
 
-            CRITICAL INSTRUCTIONS FOR VERDICT & SCORING (MUST FOLLOW EXACTLY):
-            
-            PART 1: COOKIE TECHNICAL VIOLATIONS (STRICT ENFORCEMENT):
-            1. You MUST cross-reference the "TECHNICAL COOKIE SCAN RESULTS" with the policy text.
-            2. For question 13 (non-essential cookies only after consent): If the Technical Scan shows cookies set BEFORE consent, the Verdict MUST be "No" regardless of policy claims.
-            3. If "cookies_set_before_consent" > 0, the overall "compliance_level" cannot be "Low Risk" (31-34).
-            
-            PART 2: POLICY EVALUATION (NUANCED ASSESSMENT):
-            For all other questions (1-12, 14-17), use nuanced evaluation:
-            - "Yes" = Requirement is fully met with clear, comprehensive information
-            - "Partial" = Requirement is partially met (e.g., some rights listed but not all, retention mentioned generally but not specifically, cookie policy exists but lacks detail)
-            - "No" = Requirement is not met or information is absent
-            
-            SCORING: Calculate the score internally:
-            Yes = 2 points
-            Partial = 1 point
-            No/Not Found = 0 points
+        promptArray[1] = documents + "\n\nTECHNICAL COOKIE SCAN RESULTS (Real-time data from browser):\n" + finalCookieInventory;
 
-            Total possible: 34 points.
-            
-            SCORING THRESHOLDS (MANDATORY - DO NOT DEVIATE - EXAMPLES PROVIDED):
-            - Score 0-15: compliance_level = "Critical Risk", risk_icon = "🔴" (Example: score 10 → Critical Risk 🔴)
-            - Score 16-24: compliance_level = "High Risk", risk_icon = "🟠" (Example: score 20 → High Risk 🟠)
-            - Score 25-30: compliance_level = "Moderate Risk", risk_icon = "🟡" (Example: score 28 → Moderate Risk 🟡)
-            - Score 31-34: compliance_level = "Low Risk", risk_icon = "🟢" (Example: score 32 → Low Risk 🟢)
-            
-            VERIFY your scoring calculation matches these thresholds before outputting JSON.
+        promptArray[2] = """
 
-            AUDIT CHECKLIST (To be analyzed):
+        Instructions:
 
-            PART A: GENERAL GOVERNANCE & DATA SUBJECT RIGHTS
+        Read and analyze the content of the documents provided above.
 
-            Does the policy clearly state the full contact details of the Data Controller (company name, address) and the Data Protection Officer (DPO), if applicable?
+        Evaluate the "Audit Checklist" questions below.
 
-            Does the policy specify the retention period (how long data is kept) for the main categories of personal data collected?
+        CRITICAL INSTRUCTIONS FOR VERDICTS (MUST FOLLOW EXACTLY):
+        
+        PART 1: COOKIE TECHNICAL VIOLATIONS (STRICT ENFORCEMENT):
+        1. You MUST cross-reference the "TECHNICAL COOKIE SCAN RESULTS" with the policy text.
+        2. For question 13 (non-essential cookies only after consent): If the Technical Scan shows cookies set BEFORE consent, the Verdict MUST be "No" regardless of policy claims.
+        
+        PART 2: POLICY EVALUATION (NUANCED ASSESSMENT):
+        For all other questions (1-12, 14-17), use nuanced evaluation:
+        - "Yes" = Requirement is fully met with clear, comprehensive information
+        - "Partial" = Requirement is partially met (e.g., some rights listed but not all, retention mentioned generally but not specifically, cookie policy exists but lacks detail)
+        - "No" = Requirement is not met or information is absent
+        
+        Do NOT classify cookies, count them or compute any score: that is done separately from your verdicts.
 
-            Does the policy list the specific user rights (Access, Rectification, Erasure, Objection, Portability)?
+        AUDIT CHECKLIST (To be analyzed):
 
-            Is there an operational contact channel (specific email or form) and clear instructions on how to exercise these rights?
+        PART A: GENERAL GOVERNANCE & DATA SUBJECT RIGHTS
 
-            Is the right to lodge a complaint with the relevant supervisory authority mentioned?
+        Does the policy clearly state the full contact details of the Data Controller (company name, address) and the Data Protection Officer (DPO), if applicable?
 
-            If data leaves the EEA, does the policy identify the recipient country and the specific safeguards used (e.g., Standard Contractual Clauses/SCCs or Data Privacy Framework)?
+        Does the policy specify the retention period (how long data is kept) for the main categories of personal data collected?
 
-            PART B: COOKIES & TRACKING TRANSPARENCY 7. Is there a specific and accessible Cookie Policy? (Is it separate or clearly integrated within the Privacy Policy?) 8. Does it explain in plain language what cookies are and why they are used on this website? 9. Are cookie categories clearly defined? (e.g., Technical, Analytical, Marketing, Preferences). 10. Are "strictly necessary" cookies explained, and is it justified why these do not require prior consent? 11. Does the policy contain a table or list detailing every cookie, including: Name, Provider, Purpose, and Duration? 12. Are there links to the privacy policies of external providers (third parties like Google, Facebook)? 13. Does it explicitly state that non-essential cookies (analytics/marketing) are only installed after consent? 14. Is the legal basis identified for each cookie type? (e.g., "Legitimate Interest/Necessity" for essential ones; "Consent" for the rest). 15. Does the text explain how the user can withdraw or modify their consent at any time? (Must mention a settings panel, footer link, or similar). 16. Does it clarify that withdrawing consent is as easy as giving it (e.g., "you can change your mind at any time")? 17. Does it mention if cookies are used for user profiling or tracking?
+        Does the policy list the specific user rights (Access, Rectification, Erasure, Objection, Portability)?
 
-            OUTPUT FORMAT (STRICT JSON)
-            Provide the response ONLY as a valid JSON object. Do not include introductory text or markdown formatting (like ```json). Use exactly the following structure:
+        Is there an operational contact channel (specific email or form) and clear instructions on how to exercise these rights?
 
-            JSON
+        Is the right to lodge a complaint with the relevant supervisory authority mentioned?
 
-            {
-              "audit_meta": {
-                "auditor_role": "Senior GDPR & ePrivacy Compliance Auditor",
-                "documents_reviewed": [
-                  "Privacy Policy",
-                  "Cookie Policy",
-                  "Technical Cookie Scan"
-                ],
-              },
-              "audit_checklist": [
-                {
-                  "id": 1,
-                  "category": "PART A: GENERAL GOVERNANCE & DATA SUBJECT RIGHTS",
-                  "question": "Question text...",
-                  "verdict": "Yes/No/Partial",
-                  "evidence": "Quote from text...",
-                  "notes": "Short explanation"
-                }
-              ],
-              "cookies": [
-                {
-                   "name": "_ga",
-                   "domain": ".example.com",
-                   "category": "analytics/advertising/essential/other",
-                   "set_before_consent": true/false,
-                   "is_third_party": true/false
-                }
-                // ... (List ALL cookies found in the inventory)
-              ],
-
-              "cookies_set_before_consent": 0, // Count
-              "non_essential_before_consent": 0, // Count of analytics/marketing cookies set before consent
-              "scorecard": {
-                "total_score": 0,
-                "max_score": 34,
-                "compliance_level": "Level",
-                "risk_icon": "Icon",
-                "priority_actions": []
-              }
-            }
+        If data leaves the EEA, does the policy identify the recipient country and the specific safeguards used (e.g., Standard Contractual Clauses/SCCs or Data Privacy Framework)?
 
-            COOKIE CLASSIFICATION RULES (CRITICAL - FOLLOW EXACTLY):
-            1. You MUST populate the "cookies" array by analyzing the "TECHNICAL COOKIE SCAN RESULTS" provided above.
-            2. Assign a category to each cookie based on its name:
-               - "_ga", "_gid", "_ga_*" → "analytics"
-               - "_gcl_au", "_fbp", "xbc", "_pctx" → "advertising"
-               - "FCNEC", "didomi_token", "ue_consentState" → "essential"
-            3. COOKIE TIMING CLASSIFICATION (MOST IMPORTANT):
-               - IF a cookie appears under "=== COOKIES SET BEFORE CONSENT (VIOLATIONS) ===":
-                 → set "set_before_consent": true
-               - IF a cookie appears under "=== COOKIES SET AFTER CONSENT (COMPLIANT) ===" and is marked "NEW":
-                 → set "set_before_consent": false
-            4. "cookies_set_before_consent" MUST equal the "Total Count" shown under "=== COOKIES SET BEFORE CONSENT (VIOLATIONS) ===".
-            5. "non_essential_before_consent" MUST count only analytics/advertising/other cookies from the BEFORE CONSENT section (exclude essential cookies).
-            
-            EXAMPLE: If the scan shows:
-            "=== COOKIES SET BEFORE CONSENT (VIOLATIONS) ==="
-            "Total Count: 42"
-            "- Name: _ga, Domain: .example.com"
-            
-            Then in your JSON output:
-            {"name": "_ga", "domain": ".example.com", "category": "analytics", "set_before_consent": true, ...}
-            And: "cookies_set_before_consent": 42
-            """;
-
-            GenerateContentResponse responseGDPR = client.models.generateContent(
-                    "gemini-2.5-flash",
-                    promptArray[0] + promptArray[1] + promptArray[2],
-                    null);
-
-            System.out.println();
-            System.out.println("Gemini GDPR response for domain " + domain + ": " + responseGDPR.text());
-
-            try (Connection connection = DriverManager.getConnection(URL, USER, databasePassword)) {
-
-                String query = "INSERT INTO host_results (hostname, results) VALUES (?, ?)";
-        
-                PreparedStatement ps = null;
-                ps = connection.prepareStatement(query);
-                ps.setString(1, domain);
-                ps.setString(2, responseGDPR.text());  
-                //ps.execute();
-                //instead of ps.execute, we want to verify if data is saved
-                int rows = ps.executeUpdate();
-                System.out.println("DB insert rows affected: " + rows + " for domain " + domain);
+        PART B: COOKIES & TRACKING TRANSPARENCY 7. Is there a specific and accessible Cookie Policy? (Is it separate or clearly integrated within the Privacy Policy?) 8. Does it explain in plain language what cookies are and why they are used on this website? 9. Are cookie categories clearly defined? (e.g., Technical, Analytical, Marketing, Preferences). 10. Are "strictly necessary" cookies explained, and is it justified why these do not require prior consent? 11. Does the policy contain a table or list detailing every cookie, including: Name, Provider, Purpose, and Duration? 12. Are there links to the privacy policies of external providers (third parties like Google, Facebook)? 13. Does it explicitly state that non-essential cookies (analytics/marketing) are only installed after consent? 14. Is the legal basis identified for each cookie type? (e.g., "Legitimate Interest/Necessity" for essential ones; "Consent" for the rest). 15. Does the text explain how the user can withdraw or modify their consent at any time? (Must mention a settings panel, footer link, or similar). 16. Does it clarify that withdrawing consent is as easy as giving it (e.g., "you can change your mind at any time")? 17. Does it mention if cookies are used for user profiling or tracking?
 
-            } catch (SQLException e) {
-                e.printStackTrace();
+        OUTPUT FORMAT (STRICT JSON)
+        Provide the response ONLY as a valid JSON object. Do not include introductory text or markdown formatting (like ```json). Use exactly the following structure, with one entry per checklist question (17 in total):
+
+        JSON
+
+        {
+          "audit_checklist": [
+            {
+              "id": 1,
+              "category": "PART A: GENERAL GOVERNANCE & DATA SUBJECT RIGHTS",
+              "question": "Question text...",
+              "verdict": "Yes/No/Partial",
+              "evidence": "Quote from text...",
+              "notes": "Short explanation"
             }
+          ]
         }
+        """;
 
-        driver.quit();
-        Runtime.getRuntime().exec("rm -rf privacidad");
-        Runtime.getRuntime().exec("rm -rf cookies");
+        return promptArray[0] + promptArray[1] + promptArray[2];
     }
 
 
@@ -570,142 +526,5 @@ public class App {
             return "Name: " + name + ", Domain: " + domain;
         }
     }
-
-
-
-    private static List<CookieData> getCookies(WebDriver driver) {
-        Set<Cookie> cookies = driver.manage().getCookies();
-        List<CookieData> list = new ArrayList<>();
-        for (Cookie c : cookies) {
-            list.add(new CookieData(c.getName(), c.getDomain(), c.isHttpOnly(), c.isSecure(), c.getPath()));
-        }
-        return list;
-    }
-
-
-    private static String fetchContent(String urlString) {
-        try {
-            // Handle if Gemini returns markdown link format e.g. [label](url) or just url
-            // Simple cleanup
-            if (urlString.startsWith("http")) {
-                // ok
-            } else {
-                // try to find http...
-                int httpIdx = urlString.indexOf("http");
-                if (httpIdx >= 0) {
-                   urlString = urlString.substring(httpIdx);
-                   int endIdx = urlString.indexOf(" ");
-                   if (endIdx > 0) urlString = urlString.substring(0, endIdx);
-                   endIdx = urlString.indexOf(")");
-                   if (endIdx > 0) urlString = urlString.substring(0, endIdx);
-                }
-            }
-
-            java.net.http.HttpClient client = java.net.http.HttpClient.newBuilder()
-                .followRedirects(java.net.http.HttpClient.Redirect.ALWAYS)
-                .connectTimeout(Duration.ofSeconds(10))
-                .build();
-
-            java.net.http.HttpRequest request = java.net.http.HttpRequest.newBuilder()
-                .uri(URI.create(urlString))
-                .header("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36")
-                .GET()
-                .build();
-
-            java.net.http.HttpResponse<String> response = client.send(request, java.net.http.HttpResponse.BodyHandlers.ofString());
-            
-            if (response.statusCode() >= 200 && response.statusCode() < 300) {
-                String body = response.body();
-                // Simple stripping of script/style tags to reduce token and focused on text content
-                // (Optional but helpful for LLM) - sticking to raw html for now as per prompt request "HTML format"
-                return body;
-            } else {
-                 System.out.println("Failed to fetch URL: " + urlString + " Status: " + response.statusCode());
-                 return "";
-            }
-        } catch (Exception e) {
-            System.out.println("Exception fetching URL " + urlString + ": " + e.getMessage());
-            return "";
-        }
-    }
-            
-
-
-    private static void detectAndClickConsent(WebDriver driver) {
-         try {
-            // Common selectors for "Accept" or "Agree" buttons
-            // We use JS to find and click because standard click can be intercepted
-            JavascriptExecutor js = (JavascriptExecutor) driver;
-            
-            String[] xpaths = {
-                "//button[contains(text(), 'Accept')]",
-                "//button[contains(text(), 'Aceptar')]",
-                "//button[contains(text(), 'Agree')]",
-                "//button[contains(text(), 'Allow all')]",
-                "//a[contains(text(), 'Accept')]",
-                "//div[contains(@class, 'cookie')]//button",
-                "//button[contains(@id, 'accept')]",
-                "//button[contains(@class, 'agree')]"
-            };
-
-            for (String xpath : xpaths) {
-                 List<WebElement> elements = driver.findElements(By.xpath(xpath));
-                 for (WebElement el : elements) {
-                     if (el.isDisplayed() && el.isEnabled()) {
-                         try {
-                             System.out.println("Attempting to click consent button: " + xpath);
-                             // Try normal click first
-                             // el.click(); 
-                             // Use JS click for better reliability on overlays
-                             js.executeScript("arguments[0].click();", el);
-                             
-                             Thread.sleep(3000); // Wait for cookies to be set
-                             return;
-                         } catch (Exception e) {
-                             System.out.println("Failed to click element: " + e.getMessage());
-                         }
-                     }
-                 }
-            }
-        } catch (Exception e) {
-            System.out.println("No consent banner interaction performed or error: " + e.getMessage());
-        }
-    }
-
-    private static void detectAndClickReject(WebDriver driver) {
-         try {
-            // Common selectors for "Reject", "Deny" or "Refuse" buttons
-            JavascriptExecutor js = (JavascriptExecutor) driver;
-            
-            String[] xpaths = {
-                "//button[contains(text(), 'Reject')]",
-                "//button[contains(text(), 'Rechazar')]",
-                "//button[contains(text(), 'Deny')]",
-                "//button[contains(text(), 'Refuse')]",
-                "//button[contains(text(), 'Reject all')]",
-                "//button[contains(text(), 'No, thanks')]",
-                "//a[contains(text(), 'Reject')]"
-            };
-
-            for (String xpath : xpaths) {
-                 List<WebElement> elements = driver.findElements(By.xpath(xpath));
-                 for (WebElement el : elements) {
-                     if (el.isDisplayed() && el.isEnabled()) {
-                         try {
-                             System.out.println("Attempting to click REJECT button: " + xpath);
-                             js.executeScript("arguments[0].click();", el);
-                             Thread.sleep(3000); 
-                             return;
-                         } catch (Exception e) {
-                             System.out.println("Failed to click reject element: " + e.getMessage());
-                         }
-                     }
-                 }
-            }
-            System.out.println("No 'Reject' button found.");
-        } catch (Exception e) {
-            System.out.println("Error detecting reject button: " + e.getMessage());
-        }
-    }
 }
 
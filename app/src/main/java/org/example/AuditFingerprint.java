@@ -0,0 +1,71 @@
+/*
+ * Content hashes of everything the LLM audit depends on, used to skip re-audits of unchanged domains.
+ */
+package org.example;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+record AuditFingerprint(String privacyHash, String cookiesHash, String inventoryHash) {
+
+    // Scripts, styles and comments carry nonces, build ids and timestamps that change on every request
+    private static final Pattern VOLATILE_BLOCKS = Pattern.compile(
+        "(?is)<script\\b.*?</script>|<style\\b.*?</style>|<noscript\\b.*?</noscript>|<!--.*?-->");
+    private static final Pattern TAGS = Pattern.compile("<[^>]*>");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    static AuditFingerprint of(DomainScan scan) {
+        return new AuditFingerprint(
+            sha256(normalize(scan.privacyHtml)),
+            sha256(normalize(scan.cookiesHtml)),
+            sha256(inventoryKey(scan.cookiesBefore, scan.cookiesAfter)));
+    }
+
+    // Visible text only, whitespace collapsed, so markup churn does not count as a policy change
+    static String normalize(String html) {
+        if (html == null || html.isEmpty()) {
+            return "";
+        }
+        String text = VOLATILE_BLOCKS.matcher(html).replaceAll(" ");
+        text = TAGS.matcher(text).replaceAll(" ");
+        return WHITESPACE.matcher(text).replaceAll(" ").trim();
+    }
+
+    // Cookie values differ on every visit and the browser returns cookies in no particular order,
+    // so only the sorted identity and flags of each cookie are hashed
+    static String inventoryKey(List<App.CookieData> before, List<App.CookieData> after) {
+        List<String> lines = new ArrayList<>();
+        Set<String> seenBefore = new HashSet<>();
+        for (App.CookieData c : before) {
+            seenBefore.add(c.name + "\u0000" + c.domain);
+            lines.add("before|" + describe(c));
+        }
+        for (App.CookieData c : after) {
+            if (!seenBefore.contains(c.name + "\u0000" + c.domain)) {
+                lines.add("after|" + describe(c));
+            }
+        }
+        lines.sort(null);
+        return String.join("\n", lines);
+    }
+
+    private static String describe(App.CookieData c) {
+        return c.name + "|" + c.domain + "|" + c.path + "|" + c.isHttpOnly + "|" + c.isSecure;
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
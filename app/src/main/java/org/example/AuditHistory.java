@@ -0,0 +1,57 @@
+/*
+ * Latest stored result version and content fingerprint of every hostname, used by the re-scan mode.
+ */
+package org.example;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+final class AuditHistory {
+
+    record Entry(int version, AuditFingerprint fingerprint) {
+    }
+
+    private final Map<String, Entry> latest = new ConcurrentHashMap<>();
+
+    // Streams every result row in insertion order, so the last row seen per hostname is its latest version
+    static AuditHistory load(Connection connection) throws SQLException {
+        AuditHistory history = new AuditHistory();
+        try (Statement stmt = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            try (ResultSet rs = stmt.executeQuery(
+                    "SELECT hostname, version, privacy_hash, cookies_hash, inventory_hash FROM host_results ORDER BY id")) {
+                while (rs.next()) {
+                    String privacyHash = rs.getString(3);
+                    // Rows written before fingerprints existed can never match, so they always get re-audited
+                    AuditFingerprint fingerprint = privacyHash == null ? null
+                        : new AuditFingerprint(privacyHash, rs.getString(4), rs.getString(5));
+                    history.latest.put(rs.getString(1), new Entry(rs.getInt(2), fingerprint));
+                }
+            }
+        }
+        return history;
+    }
+
+    static AuditHistory empty() {
+        return new AuditHistory();
+    }
+
+    int size() {
+        return latest.size();
+    }
+
+    // Version the next result row of this hostname gets
+    int nextVersion(String hostname) {
+        Entry entry = latest.get(hostname);
+        return entry == null ? 1 : entry.version() + 1;
+    }
+
+    boolean unchanged(String hostname, AuditFingerprint fingerprint) {
+        Entry entry = latest.get(hostname);
+        return entry != null && fingerprint.equals(entry.fingerprint());
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * Validated, normalized form of one stored audit: the scorecard row in audits, one audit_verdicts row per
+ * checklist question and one audit_cookies row per cookie. The raw JSON stays in host_results.
+ */
+package org.example;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import javax.sql.DataSource;
+
+record AuditRecord(String hostname, int version, String site, int totalScore, int maxScore, String complianceLevel,
+                   int cookiesBeforeConsent, int nonEssentialBeforeConsent, List<Verdict> verdicts, List<Cookie> cookies) {
+
+    record Verdict(int questionId, String category, String question, String verdict, int points, String evidence, String notes) {
+    }
+
+    record Cookie(String name, String domain, String category, boolean setBeforeConsent, boolean thirdParty) {
+    }
+
+    // IGNORE keeps the first audit of a (hostname, version) when a concurrent writer stored the same key
+    // between the existence check and the insert, instead of failing the caller's whole transaction
+    private static final String INSERT_AUDIT = "INSERT IGNORE INTO audits (hostname, version, site, total_score, max_score, "
+        + "compliance_level, cookies_before_consent, non_essential_before_consent) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_VERDICT = "INSERT IGNORE INTO audit_verdicts (hostname, version, question_id, category, "
+        + "question, verdict, points, evidence, notes) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_COOKIE = "INSERT INTO audit_cookies (hostname, version, name, domain, category, "
+        + "set_before_consent, third_party) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    // Null when the result is not a scored audit (an unparseable LLM answer is stored raw only).
+    // ComplianceReport already validated the checklist; older rows can still have entries with an invalid id,
+    // which are dropped, and free-text verdicts, which score 0 and are stored as Not Found.
+    static AuditRecord parse(String hostname, int version, String result) {
+        ObjectNode root;
+        try {
+            root = result == null ? null : ComplianceReport.parse(result);
+        } catch (JsonProcessingException e) {
+            root = null;
+        }
+        JsonNode scorecard = root == null ? null : root.path("scorecard");
+        if (scorecard == null || !scorecard.path("total_score").isInt() || !root.path("audit_checklist").isArray()) {
+            System.out.println("Warning: The result of " + hostname + " v" + version + " is not a scored audit, storing it raw only");
+            return null;
+        }
+
+        List<Verdict> verdicts = new ArrayList<>();
+        Set<Integer> seen = new HashSet<>();
+        for (JsonNode question : root.path("audit_checklist")) {
+            int id = question.path("id").asInt(0);
+            String verdict = verdict(question.path("verdict").asText(""));
+            if (id < 1 || id > ComplianceReport.QUESTIONS || !seen.add(id)) {
+                System.out.println("Warning: Dropping invalid checklist entry of " + hostname + ": " + truncate(question.toString(), 200));
+                continue;
+            }
+            verdicts.add(new Verdict(id, truncate(question.path("category").asText(""), 128),
+                truncate(question.path("question").asText(""), 1024), verdict, ComplianceReport.points(verdict),
+                question.path("evidence").asText(""), question.path("notes").asText("")));
+        }
+
+        List<Cookie> cookies = new ArrayList<>();
+        Set<String> keys = new HashSet<>();
+        for (JsonNode cookie : root.path("cookies")) {
+            String name = cookie.path("name").asText("");
+            String domain = cookie.path("domain").asText("");
+            if (name.isEmpty() || !keys.add(name + "\u0000" + domain)) {
+                continue;
+            }
+            cookies.add(new Cookie(truncate(name, 255), truncate(domain, 255), truncate(cookie.path("category").asText(""), 32),
+                cookie.path("set_before_consent").asBoolean(), cookie.path("is_third_party").asBoolean()));
+        }
+
+        return new AuditRecord(hostname, version, siteOf(hostname), scorecard.path("total_score").asInt(),
+            scorecard.path("max_score").asInt(ComplianceReport.MAX_SCORE), truncate(scorecard.path("compliance_level").asText(""), 32),
+            root.path("cookies_set_before_consent").asInt(), root.path("non_essential_before_consent").asInt(), verdicts, cookies);
+    }
+
+    // "https://www.elmundo.es/" -> "elmundo.es", the form the dashboard and the plugin look up
+    static String siteOf(String hostname) {
+        String host = hostname.trim();
+        try {
+            String parsed = new URI(host.contains("://") ? host : "https://" + host).getHost();
+            if (parsed != null) {
+                host = parsed;
+            }
+        } catch (URISyntaxException e) {
+            // Keep the stored hostname as it is
+        }
+        host = host.toLowerCase(Locale.ROOT);
+        return host.startsWith("www.") ? host.substring(4) : host;
+    }
+
+    // One batched statement per table; runs in the caller's transaction. A (hostname, version) that is
+    // already stored, or repeated within the batch, keeps its first audit: the raw rows still go to
+    // host_results, and a duplicate key must not roll back the rest of the batch.
+    static void insert(Connection connection, List<AuditRecord> batch) throws SQLException {
+        List<AuditRecord> records = unstored(connection, batch);
+        if (records.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement audits = connection.prepareStatement(INSERT_AUDIT);
+             PreparedStatement verdicts = connection.prepareStatement(INSERT_VERDICT);
+             PreparedStatement cookies = connection.prepareStatement(INSERT_COOKIE)) {
+            for (AuditRecord record : records) {
+                audits.setString(1, record.hostname);
+                audits.setInt(2, record.version);
+                audits.setString(3, record.site);
+                audits.setInt(4, record.totalScore);
+                audits.setInt(5, record.maxScore);
+                audits.setString(6, record.complianceLevel);
+                audits.setInt(7, record.cookiesBeforeConsent);
+                audits.setInt(8, record.nonEssentialBeforeConsent);
+                audits.addBatch();
+                for (Verdict verdict : record.verdicts) {
+                    verdicts.setString(1, record.hostname);
+                    verdicts.setInt(2, record.version);
+                    verdicts.setInt(3, verdict.questionId());
+                    verdicts.setString(4, verdict.category());
+                    verdicts.setString(5, verdict.question());
+                    verdicts.setString(6, verdict.verdict());
+                    verdicts.setInt(7, verdict.points());
+                    verdicts.setString(8, verdict.evidence());
+                    verdicts.setString(9, verdict.notes());
+                    verdicts.addBatch();
+                }
+                for (Cookie cookie : record.cookies) {
+                    cookies.setString(1, record.hostname);
+                    cookies.setInt(2, record.version);
+                    cookies.setString(3, cookie.name());
+                    cookies.setString(4, cookie.domain());
+                    cookies.setString(5, cookie.category());
+                    cookies.setBoolean(6, cookie.setBeforeConsent());
+                    cookies.setBoolean(7, cookie.thirdParty());
+                    cookies.addBatch();
+                }
+            }
+            audits.executeBatch();
+            verdicts.executeBatch();
+            cookies.executeBatch();
+        }
+    }
+
+    // The records of the batch whose (hostname, version) is new, first occurrence only
+    private static List<AuditRecord> unstored(Connection connection, List<AuditRecord> batch) throws SQLException {
+        Map<String, AuditRecord> unique = new LinkedHashMap<>();
+        for (AuditRecord record : batch) {
+            if (unique.putIfAbsent(key(record.hostname, record.version), record) != null) {
+                System.out.println("Warning: " + record.hostname + " v" + record.version + " appears twice in one batch, normalizing the first");
+            }
+        }
+        if (unique.isEmpty()) {
+            return List.of();
+        }
+        String keys = String.join(" OR ", Collections.nCopies(unique.size(), "(hostname = ? AND version = ?)"));
+        try (PreparedStatement ps = connection.prepareStatement("SELECT hostname, version FROM audits WHERE " + keys)) {
+            int i = 1;
+            for (AuditRecord record : unique.values()) {
+                ps.setString(i++, record.hostname);
+                ps.setInt(i++, record.version);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    System.out.println("Warning: " + rs.getString(1) + " v" + rs.getInt(2) + " is already normalized, keeping the stored audit");
+                    unique.remove(key(rs.getString(1), rs.getInt(2)));
+                }
+            }
+        }
+        return new ArrayList<>(unique.values());
+    }
+
+    private static String key(String hostname, int version) {
+        return hostname + "\u0000" + version;
+    }
+
+    // Normalizes host_results rows written before the audit tables existed, in batches of batchSize
+    static int backfill(DataSource dataSource, int batchSize) throws SQLException {
+        int written = 0;
+        int rawOnly = 0;
+        try (Connection reader = dataSource.getConnection();
+             Connection writer = dataSource.getConnection();
+             Statement stmt = reader.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            writer.setAutoCommit(false);
+            try (ResultSet rs = stmt.executeQuery("SELECT h.hostname, h.version, h.results FROM host_results h "
+                    + "LEFT JOIN audits a ON a.hostname = h.hostname AND a.version = h.version WHERE a.hostname IS NULL ORDER BY h.id")) {
+                List<AuditRecord> batch = new ArrayList<>(batchSize);
+                Set<String> keys = new HashSet<>();
+                while (rs.next()) {
+                    String hostname = rs.getString(1);
+                    int version = rs.getInt(2);
+                    // Older scans could store a hostname more than once with the same version; the first row wins
+                    if (!keys.add(key(hostname, version))) {
+                        continue;
+                    }
+                    AuditRecord record = parse(hostname, version, rs.getString(3));
+                    if (record == null) {
+                        rawOnly++;
+                        continue;
+                    }
+                    batch.add(record);
+                    if (batch.size() >= batchSize) {
+                        insert(writer, batch);
+                        writer.commit();
+                        written += batch.size();
+                        batch.clear();
+                    }
+                }
+                insert(writer, batch);
+                writer.commit();
+                written += batch.size();
+            }
+        }
+        System.out.println("Audit backfill: " + written + " result(s) normalized, " + rawOnly + " kept raw only");
+        return written;
+    }
+
+    // The verdict spellings the checklist allows, with the same prefixes ComplianceReport.points scores
+    private static String verdict(String raw) {
+        String v = raw.trim().toLowerCase(Locale.ROOT);
+        if (v.startsWith("yes")) {
+            return "Yes";
+        }
+        if (v.startsWith("partial")) {
+            return "Partial";
+        }
+        if (v.startsWith("no") && !v.startsWith("not")) {
+            return "No";
+        }
+        return "Not Found";
+    }
+
+    private static String truncate(String text, int max) {
+        return text.length() <= max ? text : text.substring(0, max);
+    }
+}
@@ -0,0 +1,304 @@
+/*
+ * Offline batch audits: the scan writes prompts to a JSONL batch file instead of calling the LLM, the batch is
+ * evaluated as a separate job, and its results are ingested into host_results in bulk.
+ */
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import javax.sql.DataSource;
+
+final class BatchAudit implements AutoCloseable {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final String CHUNK_SEPARATOR = "#chunk-";
+    private static final int LOOKUP_BATCH = 500;
+
+    private final BufferedWriter requests;
+    private final BufferedWriter manifest;
+    private int domains = 0;
+    private int prompts = 0;
+
+    // Requests go to the given file, the per-domain scan data needed for scoring to <name>.manifest.jsonl.
+    // A resumed run appends: the domains of the earlier run are done in the journal, so their prompts exist
+    // only in these files.
+    BatchAudit(Path requestsFile, boolean append) throws IOException {
+        this.requests = open(requestsFile, append);
+        this.manifest = open(manifestFor(requestsFile), append);
+        System.out.println("Batch audit mode: " + (append ? "appending" : "writing") + " prompts to " + requestsFile);
+    }
+
+    private static BufferedWriter open(Path file, boolean append) throws IOException {
+        if (!append) {
+            return Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        }
+        boolean tornLine = Files.exists(file) && Files.size(file) > 0 && !WorkJournal.endsWithNewline(file);
+        BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        // A crash can leave a half-written last line; the next entry starts on a line of its own
+        if (tornLine) {
+            writer.newLine();
+        }
+        return writer;
+    }
+
+    static Path manifestFor(Path requestsFile) {
+        String name = requestsFile.getFileName().toString();
+        String base = name.endsWith(".jsonl") ? name.substring(0, name.length() - 6) : name;
+        return requestsFile.resolveSibling(base + ".manifest.jsonl");
+    }
+
+    // One request line per prompt, in the Gemini batch input format, keyed by domain (and chunk)
+    synchronized void write(DomainScan scan, List<String> domainPrompts) throws IOException {
+        for (int i = 0; i < domainPrompts.size(); i++) {
+            String key = domainPrompts.size() == 1 ? scan.domain : scan.domain + CHUNK_SEPARATOR + (i + 1);
+            ObjectNode line = JSON.createObjectNode();
+            line.put("key", key);
+            line.putObject("request").putArray("contents").addObject()
+                .put("role", "user")
+                .putArray("parts").addObject().put("text", domainPrompts.get(i));
+            requests.write(JSON.writeValueAsString(line));
+            requests.newLine();
+        }
+
+        ObjectNode entry = JSON.createObjectNode();
+        entry.put("domain", scan.domain);
+        entry.put("host", scan.host);
+        entry.put("chunks", domainPrompts.size());
+        entry.put("version", scan.version);
+        entry.put("privacy_hash", scan.fingerprint.privacyHash());
+        entry.put("cookies_hash", scan.fingerprint.cookiesHash());
+        entry.put("inventory_hash", scan.fingerprint.inventoryHash());
+        writeCookies(entry.putArray("cookies_before"), scan.cookiesBefore);
+        writeCookies(entry.putArray("cookies_after"), scan.cookiesAfter);
+        manifest.write(JSON.writeValueAsString(entry));
+        manifest.newLine();
+
+        // Flushed per domain so a crashed scan still leaves a usable batch
+        requests.flush();
+        manifest.flush();
+        domains++;
+        prompts += domainPrompts.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        requests.close();
+        manifest.close();
+        System.out.println("Batch file complete: " + prompts + " prompt(s) for " + domains + " domain(s)");
+    }
+
+    // File-based stand-in for the batch API: runs every request through the given client and writes the
+    // results in the batch output format ({"key", "response"} or {"key", "error"})
+    static void runLocally(LlmClient llm, Path requestsFile, Path resultsFile) throws IOException, InterruptedException {
+        List<String> keys = new ArrayList<>();
+        List<CompletableFuture<LlmClient.Response>> futures = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(requestsFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode request = JSON.readTree(line);
+                StringBuilder prompt = new StringBuilder();
+                for (JsonNode part : request.path("request").path("contents").path(0).path("parts")) {
+                    prompt.append(part.path("text").asText());
+                }
+                keys.add(request.path("key").asText());
+                futures.add(llm.generateAsync(prompt.toString()));
+            }
+        }
+        System.out.println("Running " + keys.size() + " batch request(s) locally");
+
+        int failed = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(resultsFile, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < keys.size(); i++) {
+                ObjectNode result = JSON.createObjectNode();
+                result.put("key", keys.get(i));
+                try {
+                    LlmClient.Response response = futures.get(i).join();
+                    ObjectNode body = result.putObject("response");
+                    body.putArray("candidates").addObject().putObject("content")
+                        .putArray("parts").addObject().put("text", response.text());
+                    body.putObject("usageMetadata")
+                        .put("promptTokenCount", response.promptTokens())
+                        .put("candidatesTokenCount", response.outputTokens());
+                } catch (RuntimeException e) {
+                    failed++;
+                    result.putObject("error").put("message", String.valueOf(e.getMessage()));
+                }
+                writer.write(JSON.writeValueAsString(result));
+                writer.newLine();
+            }
+        }
+        System.out.println("Batch results written to " + resultsFile + " (" + failed + " failed)");
+    }
+
+    // Scores every domain whose batch results are complete and hands it to the result writer.
+    // Domains whose version is already in host_results are skipped, so an ingest can be repeated.
+    static void ingest(Path resultsFile, Path manifestFile, ComplianceReport report, ResultWriter writer, DataSource dataSource)
+            throws IOException, InterruptedException, SQLException {
+        Map<String, Map<Integer, String>> texts = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(resultsFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode result = JSON.readTree(line);
+                String key = result.path("key").asText();
+                if (result.has("error") || !result.has("response")) {
+                    System.out.println("Batch request " + key + " failed: " + result.path("error"));
+                    continue;
+                }
+                StringBuilder text = new StringBuilder();
+                for (JsonNode part : result.path("response").path("candidates").path(0).path("content").path("parts")) {
+                    text.append(part.path("text").asText());
+                }
+                int sep = key.lastIndexOf(CHUNK_SEPARATOR);
+                String domain = sep < 0 ? key : key.substring(0, sep);
+                int chunk = sep < 0 ? 1 : Integer.parseInt(key.substring(sep + CHUNK_SEPARATOR.length()));
+                texts.computeIfAbsent(domain, d -> new HashMap<>()).put(chunk, text.toString());
+            }
+        }
+
+        // A resumed run appends a domain it wrote before, and its requests share the key, so the last entry wins
+        Map<String, JsonNode> entries = new LinkedHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(manifestFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    JsonNode entry = JSON.readTree(line);
+                    entries.put(entry.path("domain").asText(), entry);
+                }
+            }
+        }
+        Set<String> stored = storedVersions(dataSource, entries.keySet());
+
+        int ingested = 0;
+        int incomplete = 0;
+        int already = 0;
+        writer.start();
+        try {
+            for (JsonNode entry : entries.values()) {
+                String domain = entry.path("domain").asText();
+                if (stored.contains(domain + "\u0000" + entry.path("version").asInt(1))) {
+                    already++;
+                    continue;
+                }
+                Map<Integer, String> chunks = texts.getOrDefault(domain, Map.of());
+                int expected = entry.path("chunks").asInt(1);
+                if (chunks.size() < expected) {
+                    System.out.println("Skipping " + domain + ": " + chunks.size() + " of " + expected + " batch result(s) available");
+                    incomplete++;
+                    continue;
+                }
+
+                DomainScan scan = restore(entry);
+                scan.auditResult = expected == 1 ? chunks.get(1) : mergeChunks(domain, chunks);
+                scan.auditResult = report.complete(scan, scan.auditResult);
+                if (scan.auditResult == null || scan.auditResult.isBlank()) {
+                    System.out.println("Skipping " + domain + ": the batch result is empty");
+                    incomplete++;
+                    continue;
+                }
+                writer.submit(scan);
+                ingested++;
+            }
+        } finally {
+            writer.close();
+        }
+        System.out.println("Batch ingest: " + ingested + " domain(s) written, " + incomplete + " incomplete, "
+            + already + " already stored");
+    }
+
+    // The (hostname, version) pairs of these domains that host_results already has, so ingesting twice is safe
+    private static Set<String> storedVersions(DataSource dataSource, Collection<String> domains) throws SQLException {
+        Set<String> stored = new HashSet<>();
+        List<String> all = new ArrayList<>(domains);
+        try (Connection connection = dataSource.getConnection()) {
+            for (int from = 0; from < all.size(); from += LOOKUP_BATCH) {
+                List<String> slice = all.subList(from, Math.min(all.size(), from + LOOKUP_BATCH));
+                String placeholders = String.join(",", Collections.nCopies(slice.size(), "?"));
+                try (PreparedStatement ps = connection.prepareStatement(
+                        "SELECT hostname, version FROM host_results WHERE hostname IN (" + placeholders + ")")) {
+                    for (int i = 0; i < slice.size(); i++) {
+                        ps.setString(i + 1, slice.get(i));
+                    }
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            stored.add(rs.getString(1) + "\u0000" + rs.getInt(2));
+                        }
+                    }
+                }
+            }
+        }
+        return stored;
+    }
+
+    private static String mergeChunks(String domain, Map<Integer, String> chunks) {
+        List<ObjectNode> parsed = new ArrayList<>();
+        for (String text : new TreeMap<>(chunks).values()) {
+            try {
+                parsed.add(ComplianceReport.parse(text));
+            } catch (IOException e) {
+                System.out.println("Warning: Unparseable batch chunk for " + domain + ": " + e.getMessage());
+            }
+        }
+        return parsed.isEmpty() ? chunks.values().iterator().next() : ChunkedAuditor.merge(parsed).toString();
+    }
+
+    private static DomainScan restore(JsonNode entry) {
+        DomainScan scan = new DomainScan(entry.path("domain").asText(), entry.path("host").asText());
+        scan.version = entry.path("version").asInt(1);
+        scan.fingerprint = new AuditFingerprint(
+            entry.path("privacy_hash").asText(), entry.path("cookies_hash").asText(), entry.path("inventory_hash").asText());
+        scan.cookiesBefore = readCookies(entry.path("cookies_before"));
+        scan.cookiesAfter = readCookies(entry.path("cookies_after"));
+        return scan;
+    }
+
+    private static void writeCookies(ArrayNode array, List<App.CookieData> cookies) {
+        for (App.CookieData c : cookies) {
+            array.addObject()
+                .put("name", c.name)
+                .put("domain", c.domain)
+                .put("http_only", c.isHttpOnly)
+                .put("secure", c.isSecure)
+                .put("path", c.path);
+        }
+    }
+
+    private static List<App.CookieData> readCookies(JsonNode array) {
+        List<App.CookieData> cookies = new ArrayList<>();
+        for (JsonNode c : array) {
+            cookies.add(new App.CookieData(c.path("name").asText(), c.path("domain").asText(),
+                c.path("http_only").asBoolean(), c.path("secure").asBoolean(), c.path("path").asText()));
+        }
+        return cookies;
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Fixed-size pool of isolated browser sessions shared by the scan workers.
+ */
+package org.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+final class BrowserPool implements AutoCloseable {
+
+    // A browser that cannot be restarted after this many tries is dropped and the pool shrinks
+    private static final int START_ATTEMPTS = 3;
+    private static final long START_RETRY_MILLIS = 2000;
+
+    private final BlockingQueue<BrowserSession> idle = new LinkedBlockingQueue<>();
+    private final List<BrowserSession> all = new ArrayList<>();
+    private final ScannerConfig config;
+    private int nextId = 0;
+    // Sessions being restarted by replace; they are out of `all` but the pool is not empty yet
+    private int restarting = 0;
+
+    // Quits the browsers already started if a later one fails, so a failed startup leaves no Chrome behind
+    BrowserPool(ScannerConfig config) {
+        this.config = config;
+        int size = config.browsers;
+        try {
+            for (int i = 0; i < size; i++) {
+                BrowserSession session = start();
+                idle.add(session);
+            }
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+        System.out.println("Started " + size + " headless browser(s)");
+    }
+
+    int size() {
+        synchronized (all) {
+            return all.size();
+        }
+    }
+
+    // True once every browser was dropped after failed restarts
+    boolean exhausted() {
+        synchronized (all) {
+            return all.isEmpty() && restarting == 0;
+        }
+    }
+
+    // Waits for a free browser; fails instead of waiting forever once every browser has been dropped
+    BrowserSession acquire() throws InterruptedException {
+        while (true) {
+            BrowserSession session = idle.poll(1, TimeUnit.SECONDS);
+            if (session != null) {
+                return session;
+            }
+            if (exhausted()) {
+                throw new IllegalStateException("No browsers left: every browser of the pool failed to restart");
+            }
+        }
+    }
+
+    void release(BrowserSession session) {
+        idle.add(session);
+    }
+
+    // Quit a session that is no longer usable (e.g. Chrome crashed) and put a fresh one in its place.
+    // Never throws: if Chrome does not come back after a few tries, the pool continues one browser short.
+    void replace(BrowserSession broken) {
+        synchronized (all) {
+            all.remove(broken);
+            restarting++;
+        }
+        try {
+            try {
+                broken.close();
+            } catch (Exception e) {
+                System.out.println("Warning: Could not quit broken browser " + broken.id() + ": " + e.getMessage());
+            }
+            for (int attempt = 1; attempt <= START_ATTEMPTS; attempt++) {
+                try {
+                    idle.add(start());
+                    return;
+                } catch (RuntimeException e) {
+                    System.err.println("Could not restart browser " + broken.id() + " (attempt " + attempt + " of "
+                        + START_ATTEMPTS + "): " + e.getMessage());
+                }
+                try {
+                    Thread.sleep(START_RETRY_MILLIS * attempt);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            System.err.println("Dropping browser " + broken.id() + "; " + size() + " browser(s) left in the pool");
+        } finally {
+            synchronized (all) {
+                restarting--;
+            }
+        }
+    }
+
+    private BrowserSession start() {
+        BrowserSession session;
+        synchronized (all) {
+            try {
+                session = new BrowserSession(nextId++, config);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not create capture buffer for a new browser", e);
+            }
+            all.add(session);
+        }
+        return session;
+    }
+
+    @Override
+    public void close() {
+        synchronized (all) {
+            for (BrowserSession session : all) {
+                try {
+                    session.close();
+                } catch (Exception e) {
+                    System.out.println("Warning: Could not quit browser " + session.id() + ": " + e.getMessage());
+                }
+            }
+            all.clear();
+        }
+        idle.clear();
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * One isolated headless Chrome instance with its own network interceptor and capture buffer.
+ */
+package org.example;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.devtools.NetworkInterceptor;
+import org.openqa.selenium.devtools.v141.browser.model.BrowserContextID;
+import org.openqa.selenium.devtools.v141.storage.Storage;
+import org.openqa.selenium.devtools.v141.target.Target;
+import org.openqa.selenium.devtools.v141.target.model.TargetID;
+import org.openqa.selenium.remote.http.Filter;
+import org.openqa.selenium.remote.http.HttpResponse;
+
+final class BrowserSession implements AutoCloseable {
+
+    private final int id;
+    private final WebDriver driver;
+    private final DevTools devTools;
+    private final Filter captureFilter;
+    private final CaptureBuffer capture;
+    private final NetworkIdleDetector idleDetector;
+    private final CookieTimeline cookieTimeline = new CookieTimeline();
+    private final Duration consentQuiet;
+    private final Duration consentMax;
+    // Only set in resource blocking mode
+    private final ResourceBlocker blocker;
+    private NetworkInterceptor interceptor;
+
+    // The first tab only keeps the browser alive between domains, unless contexts are unavailable
+    private final String homeHandle;
+    private boolean useContexts;
+    private BrowserContextID context;
+
+    BrowserSession(int id, ScannerConfig config) throws IOException {
+        this.id = id;
+        this.capture = new CaptureBuffer(config.captureResponseBytes, config.captureDomainBytes, config.captureSpillBytes);
+
+        ChromeOptions options = new ChromeOptions();
+        options.addArguments("--headless=new");
+        options.addArguments("--disable-gpu");
+        options.addArguments("--window-size=1920,1080");
+        options.addArguments("--no-sandbox");
+        options.addArguments("--disable-dev-shm-usage");
+
+        try {
+            this.driver = new ChromeDriver(options);
+        } catch (RuntimeException e) {
+            capture.close();
+            throw e;
+        }
+        // A browser that started but cannot be instrumented is quit here; the pool never sees it
+        try {
+            this.homeHandle = driver.getWindowHandle();
+            this.useContexts = config.browserContexts;
+
+            this.captureFilter = next -> req -> {
+                HttpResponse res = next.execute(req);
+                capture.offer(res);
+                return res;
+            };
+            this.idleDetector = new NetworkIdleDetector(
+                Duration.ofMillis(config.idleQuietMillis), Duration.ofMillis(config.idleMaxMillis), config.idleMaxInFlight);
+            this.consentQuiet = Duration.ofMillis(config.consentQuietMillis);
+            this.consentMax = Duration.ofMillis(config.consentMaxMillis);
+            this.blocker = config.blockResources ? new ResourceBlocker(config.blockTypes, config.blockPatterns) : null;
+
+            this.devTools = ((HasDevTools) driver).getDevTools();
+            devTools.createSessionIfThereIsNotOne(homeHandle);
+            instrument();
+        } catch (RuntimeException e) {
+            driver.quit();
+            capture.close();
+            throw e;
+        }
+    }
+
+    int id() {
+        return id;
+    }
+
+    WebDriver driver() {
+        return driver;
+    }
+
+    CaptureBuffer capture() {
+        return capture;
+    }
+
+    // Opens a fresh browser context for the next domain, so no cookies, storage, IndexedDB,
+    // service workers or cache can leak from the previous one
+    void reset() {
+        capture.clear();
+
+        if (useContexts) {
+            try {
+                openContext();
+                return;
+            } catch (RuntimeException e) {
+                System.out.println("Warning: Browser " + id + " could not open a browser context, clearing state in place instead: " + e.getMessage());
+                useContexts = false;
+                closeContext();
+            }
+        }
+
+        try {
+            // deleteAllCookies only reaches the current origin; third-party cookies need the cookie store
+            devTools.send(Storage.clearCookies(Optional.empty()));
+            driver.manage().deleteAllCookies();
+            ((JavascriptExecutor) driver).executeScript(
+                "window.localStorage.clear(); window.sessionStorage.clear();");
+        } catch (Exception e) {
+            System.out.println("Warning: Could not clear updated browser state: " + e.getMessage());
+        }
+    }
+
+    // Disposes the domain's browser context together with everything stored in it
+    void finish() {
+        if (context != null) {
+            closeContext();
+        }
+    }
+
+    // Navigate to the domain and wait until its network activity has settled; cookies of other sites
+    // than siteDomain count as third-party
+    void load(String domain, String siteDomain) throws InterruptedException {
+        idleDetector.reset();
+        cookieTimeline.start(siteDomain);
+        if (blocker != null) {
+            blocker.reset();
+        }
+        long start = System.currentTimeMillis();
+        driver.get(domain);
+
+        boolean settled = idleDetector.awaitIdle();
+        long elapsed = System.currentTimeMillis() - start;
+        if (settled) {
+            System.out.println("Network idle on " + domain + " after " + elapsed + " ms and " + idleDetector.requestCount() + " requests");
+        } else {
+            System.out.println("\nTimeout while waiting for network idle on: " + domain + " (" + elapsed + " ms)");
+            System.out.println("Number of requests: " + idleDetector.requestCount());
+        }
+        System.out.println("Capture buffer for " + domain + ": " + capture.summary());
+        if (blocker != null) {
+            System.out.println("Blocked requests on " + domain + ": " + blocker.blockedCount());
+        }
+    }
+
+    // Clicks the consent banner's accept or reject button and waits until the cookies and requests it
+    // triggered have stopped. Returns false if the page has no such button.
+    boolean answerConsent(ConsentBanner.Action action) throws InterruptedException {
+        String clicked = ConsentBanner.click(driver, action);
+        if (clicked == null) {
+            System.out.println("No consent " + action.name().toLowerCase(Locale.ROOT) + " button found");
+            return false;
+        }
+
+        long start = System.currentTimeMillis();
+        boolean settled = idleDetector.awaitQuiet(consentQuiet, consentMax);
+        System.out.println("Clicked consent button " + clicked + "; " + (settled ? "settled" : "still busy")
+            + " after " + (System.currentTimeMillis() - start) + " ms with " + idleDetector.cookieChangeCount() + " cookie change(s)");
+        return true;
+    }
+
+    // Cookies stored before the consent click; everything set later counts as post-consent
+    List<CookieTimeline.Entry> cookiesBeforeConsent() {
+        return cookieTimeline.markConsent(storedCookies());
+    }
+
+    // Cookies stored at the end of the visit, with where and when each was set
+    List<CookieTimeline.Entry> cookiesAfterConsent() {
+        return cookieTimeline.finish(storedCookies());
+    }
+
+    // One DevTools call returns every cookie of the browser context, third-party ones included
+    private List<App.CookieData> storedCookies() {
+        List<App.CookieData> cookies = new ArrayList<>();
+        try {
+            for (org.openqa.selenium.devtools.v141.network.model.Cookie c : devTools.send(Storage.getCookies(Optional.ofNullable(context)))) {
+                cookies.add(new App.CookieData(c.getName(), c.getDomain(), c.getHttpOnly(), c.getSecure(), c.getPath()));
+            }
+        } catch (RuntimeException e) {
+            System.out.println("Warning: Browser " + id + " could not read the cookie store, using the page's cookies only: " + e.getMessage());
+            cookies.clear();
+            for (Cookie c : driver.manage().getCookies()) {
+                cookies.add(new App.CookieData(c.getName(), c.getDomain(), c.isHttpOnly(), c.isSecure(), c.getPath()));
+            }
+        }
+        return cookies;
+    }
+
+    @Override
+    public void close() {
+        finish();
+        try {
+            if (interceptor != null) {
+                interceptor.close();
+            }
+        } catch (Exception e) {
+            System.out.println("Warning: Could not close network interceptor of browser " + id + ": " + e.getMessage());
+        }
+        driver.quit();
+        capture.close();
+    }
+
+    private void openContext() {
+        context = devTools.send(Target.createBrowserContext(
+            Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty()));
+        TargetID tab = devTools.send(Target.createTarget(
+            "about:blank", Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(),
+            Optional.of(context), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty()));
+
+        // ChromeDriver uses the target id as window handle
+        driver.switchTo().window(tab.toString());
+        attach(tab.toString());
+    }
+
+    private void closeContext() {
+        try {
+            driver.switchTo().window(homeHandle);
+            // Move the DevTools session off the tab before its context disappears
+            devTools.clearListeners();
+            devTools.createSession(homeHandle);
+            interceptor = null;
+            if (context != null) {
+                devTools.send(Target.disposeBrowserContext(context));
+            }
+        } catch (RuntimeException e) {
+            System.out.println("Warning: Browser " + id + " could not dispose its browser context: " + e.getMessage());
+        } finally {
+            context = null;
+        }
+        // Without contexts the home tab does the scanning and needs its listeners back
+        if (!useContexts) {
+            instrument();
+        }
+    }
+
+    // Points the DevTools session at the given tab and re-installs all listeners on it
+    private void attach(String windowHandle) {
+        devTools.clearListeners();
+        devTools.createSession(windowHandle);
+        instrument();
+    }
+
+    private void instrument() {
+        interceptor = new NetworkInterceptor(driver, captureFilter);
+        idleDetector.attach(devTools);
+        cookieTimeline.attach(devTools);
+        if (blocker != null) {
+            blocker.attach(devTools);
+        }
+    }
+}
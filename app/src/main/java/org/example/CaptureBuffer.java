@@ -0,0 +1,211 @@
+/*
+ * Per-browser store of intercepted response bodies, limited to text-like content and a byte budget.
+ */
+package org.example;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openqa.selenium.remote.http.Contents;
+import org.openqa.selenium.remote.http.HttpResponse;
+
+final class CaptureBuffer {
+
+    // Only these bodies can contain policy links; images, fonts and media are never kept
+    private static final String[] TEXT_TYPES = {"html", "javascript", "ecmascript", "json"};
+
+    interface Body {
+        InputStream open();
+    }
+
+    private final int maxResponseBytes;
+    private final long maxDomainBytes;
+    private final int spillBytes;
+    private final Path spillDirectory;
+
+    private final Queue<Body> bodies = new ConcurrentLinkedQueue<>();
+    private final Queue<Path> spillFiles = new ConcurrentLinkedQueue<>();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicInteger responses = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+    private final AtomicInteger overBudget = new AtomicInteger();
+
+    CaptureBuffer(int maxResponseBytes, long maxDomainBytes, int spillBytes) throws IOException {
+        this.maxResponseBytes = maxResponseBytes;
+        this.maxDomainBytes = maxDomainBytes;
+        this.spillBytes = spillBytes;
+        this.spillDirectory = Files.createTempDirectory("scanner-capture-");
+    }
+
+    // Called from the network interceptor for every response the browser receives
+    void offer(HttpResponse res) {
+        responses.incrementAndGet();
+
+        if (!isTextLike(contentType(res))) {
+            skipped.incrementAndGet();
+            return;
+        }
+
+        Contents.Supplier content = res.getContent();
+        int length = Math.min(content.length(), maxResponseBytes);
+        if (length <= 0) {
+            return;
+        }
+
+        if (bytes.addAndGet(length) > maxDomainBytes) {
+            bytes.addAndGet(-length);
+            overBudget.incrementAndGet();
+            return;
+        }
+
+        if (length <= spillBytes && length == content.length()) {
+            // Small bodies keep the interceptor's own byte array, no copy is made
+            bodies.add(content::get);
+            return;
+        }
+
+        try {
+            // A body cut at maxResponseBytes keeps only the bytes the budget was charged for
+            bodies.add(length <= spillBytes ? head(content, length) : spill(content, length));
+        } catch (IOException e) {
+            bytes.addAndGet(-length);
+            System.out.println("Warning: Could not keep captured response: " + e.getMessage());
+        }
+    }
+
+    Iterable<Body> bodies() {
+        return bodies;
+    }
+
+    // Every response seen, including the ones that were not kept
+    int responseCount() {
+        return responses.get();
+    }
+
+    // Bytes of the bodies that were kept
+    long byteCount() {
+        return bytes.get();
+    }
+
+    String summary() {
+        return "kept " + bodies.size() + " of " + responses.get() + " responses (" + (bytes.get() / 1024) + " KB), "
+            + skipped.get() + " non-text, " + overBudget.get() + " over budget";
+    }
+
+    void clear() {
+        bodies.clear();
+        bytes.set(0);
+        responses.set(0);
+        skipped.set(0);
+        overBudget.set(0);
+        deleteSpillFiles();
+    }
+
+    void close() {
+        clear();
+        try {
+            Files.deleteIfExists(spillDirectory);
+        } catch (IOException e) {
+            System.out.println("Warning: Could not delete capture directory " + spillDirectory + ": " + e.getMessage());
+        }
+    }
+
+    // Large bodies are written to a temp file and read back through a read-only mapping
+    private static Body head(Contents.Supplier content, int length) throws IOException {
+        try (InputStream in = content.get()) {
+            byte[] head = in.readNBytes(length);
+            return () -> new ByteArrayInputStream(head);
+        }
+    }
+
+    private Body spill(Contents.Supplier content, int length) throws IOException {
+        Path file = Files.createTempFile(spillDirectory, "body-", ".bin");
+        spillFiles.add(file);
+
+        try (InputStream in = content.get();
+             FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            byte[] chunk = new byte[8192];
+            int remaining = length;
+            int read;
+            while (remaining > 0 && (read = in.read(chunk, 0, Math.min(chunk.length, remaining))) != -1) {
+                channel.write(ByteBuffer.wrap(chunk, 0, read));
+                remaining -= read;
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, length - remaining);
+            return () -> new MappedInputStream(mapped.duplicate());
+        }
+    }
+
+    private void deleteSpillFiles() {
+        Path file;
+        while ((file = spillFiles.poll()) != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                System.out.println("Warning: Could not delete spilled response " + file + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static String contentType(HttpResponse res) {
+        for (String name : res.getHeaderNames()) {
+            if (name.equalsIgnoreCase("Content-Type")) {
+                return res.getHeader(name);
+            }
+        }
+        return null;
+    }
+
+    private static boolean isTextLike(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String type = contentType.toLowerCase(Locale.ROOT);
+        for (String text : TEXT_TYPES) {
+            if (type.contains(text)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class MappedInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        MappedInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Map-reduce audit of policies too long for one prompt: overlapping chunks are audited in parallel and the
+ * per-chunk verdicts are merged into one checklist.
+ */
+package org.example;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+final class ChunkedAuditor {
+
+    private final LlmClient llm;
+    private final int chunkTokens;
+    private final int overlapTokens;
+
+    ChunkedAuditor(LlmClient llm, int chunkTokens, int overlapTokens) {
+        this.llm = llm;
+        this.chunkTokens = chunkTokens;
+        this.overlapTokens = Math.min(overlapTokens, chunkTokens / 2);
+    }
+
+    boolean needsChunking(DomainScan scan) {
+        return PolicyText.estimateTokens(scan.privacyText) + PolicyText.estimateTokens(scan.cookiesText) > chunkTokens;
+    }
+
+    // One full audit prompt per chunk
+    List<String> prompts(DomainScan scan) {
+        List<String> documents = new ArrayList<>();
+        if (scan.samePolicyPage) {
+            addChunks(documents, "Privacy Policy and Cookie Policy (both are published on the same page)", scan.privacyText);
+        } else {
+            addChunks(documents, "Privacy Policy", scan.privacyText);
+            addChunks(documents, "Cookie Policy", scan.cookiesText);
+        }
+        List<String> prompts = new ArrayList<>();
+        for (String document : documents) {
+            prompts.add(App.auditPrompt(document, scan.cookieInventory));
+        }
+        return prompts;
+    }
+
+    DomainScan audit(DomainScan scan) throws InterruptedException {
+        List<String> prompts = prompts(scan);
+        System.out.println("Auditing " + scan.domain + " in " + prompts.size() + " chunk(s) in parallel");
+
+        // All chunks are queued at once; the LLM client decides how many actually run in parallel
+        List<Future<LlmClient.Response>> futures = new ArrayList<>();
+        for (String prompt : prompts) {
+            futures.add(llm.generateAsync(prompt));
+        }
+
+        List<ObjectNode> results = new ArrayList<>();
+        String firstRaw = null;
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                String raw = futures.get(i).get().text();
+                if (raw == null) {
+                    System.out.println("Warning: Chunk " + (i + 1) + " of " + scan.domain + " returned no text");
+                    continue;
+                }
+                if (firstRaw == null) {
+                    firstRaw = raw;
+                }
+                results.add(ComplianceReport.parse(raw));
+            } catch (ExecutionException | JsonProcessingException e) {
+                System.out.println("Warning: Chunk " + (i + 1) + " of " + scan.domain + " failed: " + e.getMessage());
+            }
+        }
+
+        if (results.isEmpty()) {
+            // Nothing to merge; keep whatever came back so the failure is visible in the stored result
+            if (firstRaw == null) {
+                throw new IllegalStateException("Every audit chunk of " + scan.domain + " failed");
+            }
+            scan.auditResult = firstRaw;
+        } else {
+            scan.auditResult = merge(results).toString();
+        }
+        System.out.println();
+        System.out.println("Gemini GDPR response for domain " + scan.domain + " (" + results.size() + " chunk(s) merged): " + scan.auditResult);
+        return scan;
+    }
+
+    private void addChunks(List<String> documents, String label, String text) {
+        if (text.isEmpty()) {
+            return;
+        }
+        List<String> chunks = split(text, chunkTokens, overlapTokens);
+        for (int i = 0; i < chunks.size(); i++) {
+            String part = chunks.size() == 1 ? label : label + ", part " + (i + 1) + " of " + chunks.size()
+                + " (other parts of this document are audited separately)";
+            documents.add("\n" + part + ": [" + chunks.get(i) + "]");
+        }
+    }
+
+    // Splits at line boundaries; each chunk repeats the tail of the previous one and starts with the
+    // heading it falls under, so evidence spanning a boundary is seen whole at least once
+    static List<String> split(String text, int chunkTokens, int overlapTokens) {
+        int maxChars = chunkTokens * PolicyText.CHARS_PER_TOKEN;
+        int overlapChars = overlapTokens * PolicyText.CHARS_PER_TOKEN;
+        List<String> chunks = new ArrayList<>();
+        if (text.length() <= maxChars) {
+            chunks.add(text);
+            return chunks;
+        }
+
+        int start = 0;
+        while (start < text.length()) {
+            String heading = headingBefore(text, start);
+            String prefix = heading == null ? "" : heading + " (continued)\n";
+            int end = Math.min(text.length(), start + maxChars - prefix.length());
+            if (end < text.length()) {
+                int lineEnd = text.lastIndexOf('\n', end);
+                if (lineEnd > start) {
+                    end = lineEnd;
+                }
+            }
+            chunks.add(prefix + text.substring(start, end));
+            if (end >= text.length()) {
+                break;
+            }
+
+            // Step back by the overlap, but always move forward and restart at a line start
+            int next = Math.max(start + 1, end - overlapChars);
+            int lineStart = text.indexOf('\n', next);
+            start = lineStart < 0 || lineStart >= end ? end : lineStart + 1;
+        }
+        return chunks;
+    }
+
+    private static String headingBefore(String text, int position) {
+        if (position == 0 || text.startsWith("## ", position)) {
+            return null;
+        }
+        int idx = text.lastIndexOf("\n## ", position - 1);
+        if (idx < 0) {
+            return text.startsWith("## ") ? text.substring(0, lineEnd(text, 0)) : null;
+        }
+        return text.substring(idx + 1, lineEnd(text, idx + 1));
+    }
+
+    private static int lineEnd(String text, int from) {
+        int end = text.indexOf('\n', from);
+        return end < 0 ? text.length() : end;
+    }
+
+    // The best verdict per question wins, since its evidence may sit in any chunk; a chunk without it answers
+    // "No" or "Not Found". The consent question too: what the cookie scan says about it is applied afterwards
+    // by ComplianceReport.complete.
+    static ObjectNode merge(List<ObjectNode> results) {
+        Map<Integer, JsonNode> best = new TreeMap<>();
+        for (ObjectNode result : results) {
+            for (JsonNode question : result.path("audit_checklist")) {
+                int id = question.path("id").asInt();
+                JsonNode current = best.get(id);
+                if (current == null) {
+                    best.put(id, question);
+                    continue;
+                }
+                if (ComplianceReport.points(question.path("verdict").asText())
+                        > ComplianceReport.points(current.path("verdict").asText())) {
+                    best.put(id, question);
+                }
+            }
+        }
+
+        ObjectNode merged = results.get(0).objectNode();
+        ArrayNode checklist = merged.putArray("audit_checklist");
+        best.values().forEach(checklist::add);
+        return merged;
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Deterministic part of the audit: cookie classification, consent counts, score and risk band, merged with
+ * the checklist verdicts returned by the LLM into the JSON stored in host_results.
+ */
+package org.example;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.json.JsonReadFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+final class ComplianceReport {
+
+    // Models sometimes copy comments or a trailing comma from example JSON
+    private static final ObjectMapper JSON = JsonMapper.builder()
+        .enable(JsonReadFeature.ALLOW_JAVA_COMMENTS)
+        .enable(JsonReadFeature.ALLOW_TRAILING_COMMA)
+        .build();
+
+    static final int MAX_SCORE = 34;
+    static final int QUESTIONS = MAX_SCORE / 2;
+
+    // Checklist question about non-essential cookies only being set after consent
+    static final int CONSENT_QUESTION = 13;
+
+    private static final int MAX_PRIORITY_ACTIONS = 6;
+
+    private final CookieClassifier classifier;
+
+    ComplianceReport(CookieClassifier classifier) {
+        this.classifier = classifier;
+    }
+
+    // Gemini sometimes wraps the JSON in a markdown code fence despite the instructions
+    static ObjectNode parse(String raw) throws JsonProcessingException {
+        String json = raw.trim();
+        int open = json.indexOf('{');
+        int close = json.lastIndexOf('}');
+        if (open >= 0 && close > open) {
+            json = json.substring(open, close + 1);
+        }
+        return JSON.readValue(json, ObjectNode.class);
+    }
+
+    // Verdict points: Yes = 2, Partial = 1, No/Not Found = 0
+    static int points(String verdict) {
+        String v = verdict.trim().toLowerCase(Locale.ROOT);
+        if (v.startsWith("yes")) {
+            return 2;
+        }
+        if (v.startsWith("partial")) {
+            return 1;
+        }
+        return 0;
+    }
+
+    // Risk bands; cookies set before consent rule out "Low Risk" whatever the score
+    static String complianceLevel(int score, boolean cookiesBeforeConsent) {
+        if (score <= 15) {
+            return "Critical Risk";
+        }
+        if (score <= 24) {
+            return "High Risk";
+        }
+        if (score <= 30 || cookiesBeforeConsent) {
+            return "Moderate Risk";
+        }
+        return "Low Risk";
+    }
+
+    static String riskIcon(String level) {
+        return switch (level) {
+            case "Critical Risk" -> "🔴";
+            case "High Risk" -> "🟠";
+            case "Moderate Risk" -> "🟡";
+            default -> "🟢";
+        };
+    }
+
+    // Builds the stored result from the LLM verdicts; an unparseable answer is kept as is
+    String complete(DomainScan scan, String llmResult) {
+        if (llmResult == null) {
+            return null;
+        }
+        ObjectNode verdicts;
+        try {
+            verdicts = parse(llmResult);
+        } catch (JsonProcessingException e) {
+            System.out.println("Warning: Could not parse the audit of " + scan.domain + ", storing it unscored: " + e.getOriginalMessage());
+            return llmResult;
+        }
+
+        ObjectNode result = JSON.createObjectNode();
+        ObjectNode meta = result.putObject("audit_meta");
+        meta.put("auditor_role", "Senior GDPR & ePrivacy Compliance Auditor");
+        meta.putArray("documents_reviewed").add("Privacy Policy").add("Cookie Policy").add("Technical Cookie Scan");
+
+        ArrayNode checklist = validChecklist(scan.domain, verdicts.path("audit_checklist"));
+        result.set("audit_checklist", checklist);
+
+        // Cookies
+        ArrayNode cookies = result.putArray("cookies");
+        Set<String> before = new HashSet<>();
+        List<String> nonEssentialNames = new ArrayList<>();
+        for (App.CookieData c : scan.cookiesBefore) {
+            before.add(c.name + "\u0000" + c.domain);
+            String category = addCookie(cookies, scan, c, true);
+            if (!category.equals(CookieClassifier.ESSENTIAL)) {
+                nonEssentialNames.add(c.name);
+            }
+        }
+        for (App.CookieData c : scan.cookiesAfter) {
+            if (!before.contains(c.name + "\u0000" + c.domain)) {
+                addCookie(cookies, scan, c, false);
+            }
+        }
+        result.put("cookies_set_before_consent", scan.cookiesBefore.size());
+        result.put("non_essential_before_consent", nonEssentialNames.size());
+
+        // The technical scan decides the consent question, whatever the policy text claims
+        if (!nonEssentialNames.isEmpty()) {
+            for (JsonNode question : checklist) {
+                if (question.path("id").asInt() == CONSENT_QUESTION && points(question.path("verdict").asText()) > 0
+                        && question instanceof ObjectNode node) {
+                    node.put("verdict", "No");
+                    node.put("notes", nonEssentialNames.size() + " non-essential cookie(s) were set before consent. "
+                        + node.path("notes").asText(""));
+                }
+            }
+        }
+
+        // Scorecard
+        int score = 0;
+        for (JsonNode question : checklist) {
+            score += points(question.path("verdict").asText());
+        }
+        String level = complianceLevel(score, !scan.cookiesBefore.isEmpty());
+        ObjectNode scorecard = result.putObject("scorecard");
+        scorecard.put("total_score", score);
+        scorecard.put("max_score", MAX_SCORE);
+        scorecard.put("compliance_level", level);
+        scorecard.put("risk_icon", riskIcon(level));
+        ArrayNode actions = scorecard.putArray("priority_actions");
+        for (String action : priorityActions(checklist, nonEssentialNames)) {
+            actions.add(action);
+        }
+        return result.toString();
+    }
+
+    // One entry per question id of the checklist; anything else the model invents is dropped before scoring
+    private static ArrayNode validChecklist(String domain, JsonNode entries) {
+        ArrayNode checklist = JSON.createArrayNode();
+        Set<Integer> seen = new HashSet<>();
+        for (JsonNode question : entries) {
+            int id = question.path("id").asInt(0);
+            if (question instanceof ObjectNode && id >= 1 && id <= QUESTIONS && seen.add(id)) {
+                checklist.add(question);
+            } else {
+                System.out.println("Warning: Dropping invalid checklist entry of " + domain + ": " + question);
+            }
+        }
+        return checklist;
+    }
+
+    private String addCookie(ArrayNode cookies, DomainScan scan, App.CookieData c, boolean beforeConsent) {
+        String category = classifier.classify(c.name);
+        ObjectNode cookie = cookies.addObject();
+        cookie.put("name", c.name);
+        cookie.put("domain", c.domain);
+        cookie.put("category", category);
+        cookie.put("set_before_consent", beforeConsent);
+        cookie.put("is_third_party", isThirdParty(c.domain, scan.shortDomain));
+        return category;
+    }
+
+    static boolean isThirdParty(String cookieDomain, String siteDomain) {
+        if (cookieDomain == null || cookieDomain.isEmpty()) {
+            return false;
+        }
+        String domain = cookieDomain.startsWith(".") ? cookieDomain.substring(1) : cookieDomain;
+        domain = domain.toLowerCase(Locale.ROOT);
+        String site = siteDomain.toLowerCase(Locale.ROOT);
+        return !(domain.equals(site) || domain.endsWith("." + site) || site.endsWith("." + domain));
+    }
+
+    // Consent violations first, then failed checklist items, then partially met ones
+    private static List<String> priorityActions(ArrayNode checklist, List<String> nonEssentialNames) {
+        List<String> actions = new ArrayList<>();
+        if (!nonEssentialNames.isEmpty()) {
+            List<String> examples = nonEssentialNames.subList(0, Math.min(3, nonEssentialNames.size()));
+            actions.add("Stop setting " + nonEssentialNames.size() + " non-essential cookie(s) before consent (e.g. "
+                + String.join(", ", examples) + ").");
+        }
+        for (int wanted = 0; wanted <= 1; wanted++) {
+            for (JsonNode question : checklist) {
+                if (actions.size() >= MAX_PRIORITY_ACTIONS) {
+                    return actions;
+                }
+                boolean coveredAbove = !nonEssentialNames.isEmpty() && question.path("id").asInt() == CONSENT_QUESTION;
+                if (points(question.path("verdict").asText()) == wanted && !coveredAbove) {
+                    actions.add((wanted == 0 ? "Add: " : "Improve: ") + question.path("question").asText());
+                }
+            }
+        }
+        return actions;
+    }
+}
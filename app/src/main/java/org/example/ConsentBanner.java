@@ -0,0 +1,87 @@
+/*
+ * Consent banner automation with one injected script per document instead of a WebDriver round trip per
+ * selector and element.
+ */
+package org.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+
+final class ConsentBanner {
+
+    private static final String SCRIPT_RESOURCE = "/consent-scan.js";
+    private static final String SCRIPT = loadScript();
+
+    enum Action { ACCEPT, REJECT }
+
+    private ConsentBanner() {
+    }
+
+    // Clicks the best ranked accept or reject button of the current page and describes it, or returns
+    // null if the page has none. Consent managers in cross-origin iframes cost one more call per frame.
+    static String click(WebDriver driver, Action action) {
+        JavascriptExecutor js = (JavascriptExecutor) driver;
+        String mode = action.name().toLowerCase(Locale.ROOT);
+        try {
+            Object result = js.executeScript(SCRIPT, mode);
+            String clicked = clicked(result);
+            if (clicked != null) {
+                return clicked;
+            }
+
+            for (WebElement frame : frames(result)) {
+                try {
+                    driver.switchTo().frame(frame);
+                    clicked = clicked(js.executeScript(SCRIPT, mode));
+                    if (clicked != null) {
+                        return clicked + " in consent frame";
+                    }
+                } catch (WebDriverException e) {
+                    System.out.println("Could not search consent frame: " + e.getMessage());
+                } finally {
+                    driver.switchTo().defaultContent();
+                }
+            }
+        } catch (WebDriverException e) {
+            System.out.println("No consent banner interaction performed or error: " + e.getMessage());
+        }
+        return null;
+    }
+
+    private static String clicked(Object result) {
+        if (result instanceof Map<?, ?> map && map.get("clicked") instanceof String description) {
+            return description;
+        }
+        return null;
+    }
+
+    private static List<WebElement> frames(Object result) {
+        if (result instanceof Map<?, ?> map && map.get("frames") instanceof List<?> list) {
+            return list.stream()
+                .filter(WebElement.class::isInstance)
+                .map(WebElement.class::cast)
+                .toList();
+        }
+        return List.of();
+    }
+
+    private static String loadScript() {
+        try (InputStream in = ConsentBanner.class.getResourceAsStream(SCRIPT_RESOURCE)) {
+            if (in == null) {
+                throw new IOException("Missing consent script resource " + SCRIPT_RESOURCE);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Sorts cookie names into essential / analytics / advertising / other from an extensible table of known cookies.
+ */
+package org.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+final class CookieClassifier {
+
+    private static final String DEFAULT_RESOURCE = "/known-cookies.txt";
+
+    static final String ESSENTIAL = "essential";
+    static final String ANALYTICS = "analytics";
+    static final String ADVERTISING = "advertising";
+    static final String OTHER = "other";
+
+    private static final Set<String> CATEGORIES = Set.of(ESSENTIAL, ANALYTICS, ADVERTISING);
+
+    private record Prefix(String prefix, String category) {
+    }
+
+    private final Map<String, String> exact;
+    // Longest prefix first, so the first match is the most specific one
+    private final List<Prefix> prefixes;
+
+    private CookieClassifier(Map<String, String> exact, List<Prefix> prefixes) {
+        this.exact = exact;
+        this.prefixes = prefixes;
+    }
+
+    // Loads the table from SCANNER_COOKIES_FILE if set, otherwise from the bundled defaults
+    static CookieClassifier load() throws IOException {
+        String override = System.getenv("SCANNER_COOKIES_FILE");
+        if (override != null && !override.isBlank()) {
+            return parse(Files.readAllLines(Path.of(override), StandardCharsets.UTF_8));
+        }
+        try (InputStream in = CookieClassifier.class.getResourceAsStream(DEFAULT_RESOURCE)) {
+            if (in == null) {
+                throw new IOException("Missing cookie resource " + DEFAULT_RESOURCE);
+            }
+            return parse(new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().toList());
+        }
+    }
+
+    static CookieClassifier parse(List<String> lines) {
+        Map<String, String> exact = new HashMap<>();
+        List<Prefix> prefixes = new ArrayList<>();
+        String section = null;
+        for (String raw : lines) {
+            String line = raw.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            if (line.startsWith("[") && line.endsWith("]")) {
+                section = line.substring(1, line.length() - 1).trim().toLowerCase(Locale.ROOT);
+                if (!CATEGORIES.contains(section)) {
+                    throw new IllegalArgumentException("Unknown cookie category: " + line);
+                }
+            } else if (section == null) {
+                throw new IllegalArgumentException("Cookie name outside of a category section: " + line);
+            } else if (line.endsWith("*")) {
+                prefixes.add(new Prefix(line.substring(0, line.length() - 1), section));
+            } else {
+                exact.put(line, section);
+            }
+        }
+        prefixes.sort(Comparator.comparingInt((Prefix p) -> p.prefix().length()).reversed());
+        return new CookieClassifier(exact, List.copyOf(prefixes));
+    }
+
+    String classify(String name) {
+        String category = exact.get(name);
+        if (category != null) {
+            return category;
+        }
+        for (Prefix prefix : prefixes) {
+            if (name.startsWith(prefix.prefix())) {
+                return prefix.category();
+            }
+        }
+        return OTHER;
+    }
+}
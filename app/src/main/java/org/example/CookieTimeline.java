@@ -0,0 +1,216 @@
+/*
+ * Push-based cookie capture: records every Set-Cookie the browser accepted, with the time, the request that
+ * set it and whether it is third-party, and splits the cookies into pre- and post-consent in one pass.
+ */
+package org.example;
+
+import java.net.URI;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.v141.network.Network;
+import org.openqa.selenium.devtools.v141.network.model.BlockedSetCookieWithReason;
+import org.openqa.selenium.devtools.v141.network.model.ResponseReceivedExtraInfo;
+
+final class CookieTimeline {
+
+    // Source of cookies that showed up in the cookie store without a Set-Cookie header (document.cookie)
+    static final String SCRIPT_SOURCE = "script";
+
+    record Entry(App.CookieData cookie, long atMillis, String source, boolean thirdParty, boolean beforeConsent) {
+
+        @Override
+        public String toString() {
+            return cookie + " (" + (thirdParty ? "third-party, " : "") + "set by " + source + " at " + atMillis + " ms)";
+        }
+    }
+
+    // Request URLs by request id, needed because the response headers event only carries the id
+    private final Map<String, String> requestUrls = new ConcurrentHashMap<>();
+    // Keyed by name, domain and path, in the order the cookies were first set
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    private String siteDomain = "";
+    private long startNanos = System.nanoTime();
+    private boolean consentGiven = false;
+
+    void attach(DevTools devTools) {
+        // Network is already enabled by the idle detector on the same session
+        devTools.addListener(Network.requestWillBeSent(),
+            event -> requestUrls.put(event.getRequestId().toString(), event.getRequest().getUrl()));
+        devTools.addListener(Network.responseReceivedExtraInfo(), this::onResponseHeaders);
+    }
+
+    // Forget the previous domain; call right before navigating
+    synchronized void start(String siteDomain) {
+        requestUrls.clear();
+        entries.clear();
+        this.siteDomain = siteDomain;
+        this.startNanos = System.nanoTime();
+        this.consentGiven = false;
+    }
+
+    // Everything recorded from now on counts as set after consent. Returns the cookies stored at this point;
+    // the browser's cookie store is the authority, the timeline adds where and when each cookie came from.
+    synchronized List<Entry> markConsent(List<App.CookieData> stored) {
+        List<Entry> before = live(stored);
+        consentGiven = true;
+        return before;
+    }
+
+    // All cookies stored at the end of the visit
+    synchronized List<Entry> finish(List<App.CookieData> stored) {
+        return live(stored);
+    }
+
+    private List<Entry> live(List<App.CookieData> stored) {
+        long now = elapsedMillis();
+        List<Entry> live = new ArrayList<>(stored.size());
+        Set<String> seen = new HashSet<>();
+        for (App.CookieData c : stored) {
+            String key = key(c.name, c.domain, c.path);
+            if (!seen.add(key)) {
+                continue;
+            }
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                // Never seen in a response header, so a script wrote it
+                entry = new Entry(c, now, SCRIPT_SOURCE, ComplianceReport.isThirdParty(c.domain, siteDomain), !consentGiven);
+                entries.put(key, entry);
+            } else {
+                // The store has the final flags; the header may have been incomplete
+                entry = new Entry(c, entry.atMillis(), entry.source(), entry.thirdParty(), entry.beforeConsent());
+                entries.put(key, entry);
+            }
+            live.add(entry);
+        }
+        return live;
+    }
+
+    private void onResponseHeaders(ResponseReceivedExtraInfo event) {
+        String lines = setCookieHeader(event.getHeaders());
+        if (lines == null) {
+            return;
+        }
+        Set<String> blocked = new HashSet<>();
+        for (BlockedSetCookieWithReason b : event.getBlockedCookies()) {
+            blocked.add(b.getCookieLine());
+        }
+        String url = requestUrls.getOrDefault(event.getRequestId().toString(), "");
+
+        synchronized (this) {
+            long at = elapsedMillis();
+            for (String line : lines.split("\n")) {
+                if (line.isBlank() || blocked.contains(line)) {
+                    continue;
+                }
+                App.CookieData cookie = parse(line, url);
+                if (cookie == null) {
+                    continue;
+                }
+                // First set wins: a cookie refreshed after consent was still set before it
+                entries.putIfAbsent(key(cookie.name, cookie.domain, cookie.path),
+                    new Entry(cookie, at, url.isEmpty() ? "unknown request" : url,
+                        ComplianceReport.isThirdParty(cookie.domain, siteDomain), !consentGiven));
+            }
+        }
+    }
+
+    // Header names keep the server's case; several cookies arrive as one value separated by newlines
+    private static String setCookieHeader(Map<String, Object> headers) {
+        for (Map.Entry<String, Object> header : headers.entrySet()) {
+            if (header.getKey().equalsIgnoreCase("set-cookie") && header.getValue() != null) {
+                return header.getValue().toString();
+            }
+        }
+        return null;
+    }
+
+    // Parses one Set-Cookie line with the defaults the browser applies; returns null for deletions
+    static App.CookieData parse(String line, String requestUrl) {
+        String[] parts = line.split(";");
+        int eq = parts[0].indexOf('=');
+        String name = (eq < 0 ? "" : parts[0].substring(0, eq)).trim();
+        if (name.isEmpty()) {
+            return null;
+        }
+
+        URI uri = null;
+        try {
+            uri = URI.create(requestUrl);
+        } catch (IllegalArgumentException e) {
+            // Keep the header defaults empty
+        }
+        String host = uri == null || uri.getHost() == null ? "" : uri.getHost().toLowerCase(Locale.ROOT);
+        String domain = host;
+        String path = defaultPath(uri == null ? null : uri.getPath());
+        boolean httpOnly = false;
+        boolean secure = false;
+
+        for (int i = 1; i < parts.length; i++) {
+            String attribute = parts[i].trim();
+            int sep = attribute.indexOf('=');
+            String key = (sep < 0 ? attribute : attribute.substring(0, sep)).trim().toLowerCase(Locale.ROOT);
+            String value = sep < 0 ? "" : attribute.substring(sep + 1).trim();
+            switch (key) {
+                case "domain" -> {
+                    // Domain cookies are reported with a leading dot, host-only cookies without
+                    String d = value.startsWith(".") ? value.substring(1) : value;
+                    if (!d.isEmpty()) {
+                        domain = "." + d.toLowerCase(Locale.ROOT);
+                    }
+                }
+                case "path" -> path = value.startsWith("/") ? value : path;
+                case "httponly" -> httpOnly = true;
+                case "secure" -> secure = true;
+                case "max-age" -> {
+                    if (value.startsWith("-") || value.equals("0")) {
+                        return null;
+                    }
+                }
+                case "expires" -> {
+                    if (expired(value)) {
+                        return null;
+                    }
+                }
+                default -> {
+                    // SameSite, Priority, Partitioned: not part of the inventory
+                }
+            }
+        }
+        return new App.CookieData(name, domain, httpOnly, secure, path);
+    }
+
+    // RFC 6265 default path: the request path up to, not including, its last slash
+    private static String defaultPath(String requestPath) {
+        if (requestPath == null || !requestPath.startsWith("/")) {
+            return "/";
+        }
+        int slash = requestPath.lastIndexOf('/');
+        return slash == 0 ? "/" : requestPath.substring(0, slash);
+    }
+
+    private static boolean expired(String value) {
+        try {
+            return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).isBefore(ZonedDateTime.now());
+        } catch (RuntimeException e) {
+            // Unusual date formats: let the cookie store decide
+            return false;
+        }
+    }
+
+    private long elapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    private static String key(String name, String domain, String path) {
+        return name + "\u0000" + domain + "\u0000" + path;
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Per-domain state handed from one pipeline stage to the next.
+ */
+package org.example;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+final class DomainScan {
+
+    // Filled by the browser capture stage
+    final String domain;
+    final String host;
+    final String shortDomain;
+    List<App.CookieData> cookiesBefore = List.of();
+    List<App.CookieData> cookiesAfter = List.of();
+    String cookieInventory = "";
+    String targetCookieUrl = "";
+    String targetPrivacyUrl = "";
+
+    // Filled by the policy fetch stage
+    String cookiesHtml = "";
+    String privacyHtml = "";
+
+    // Filled by the reduce stage: plain text within the token budget, and whether both URLs are one document
+    String cookiesText = "";
+    String privacyText = "";
+    boolean samePolicyPage = false;
+
+    // Filled by the LLM audit stage, together with the fingerprint of the inputs it was computed from
+    String auditResult;
+    AuditFingerprint fingerprint;
+    int version = 1;
+
+    // Wall time per finished stage, recorded in the work journal
+    final Map<String, Long> stageMillis = new LinkedHashMap<>();
+
+    DomainScan(String domain, String host) {
+        this.domain = domain;
+        this.host = host;
+        this.shortDomain = host.startsWith("www.") ? host.substring(4) : host;
+    }
+
+    @Override
+    public String toString() {
+        return domain;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * LLM backend calling the Gemini API through the Google GenAI client.
+ */
+package org.example;
+
+import com.google.genai.Client;
+import com.google.genai.errors.ApiException;
+import com.google.genai.errors.GenAiIOException;
+import com.google.genai.types.GenerateContentResponse;
+import com.google.genai.types.GenerateContentResponseUsageMetadata;
+import com.google.genai.types.HttpOptions;
+import java.io.IOException;
+import java.util.concurrent.TimeoutException;
+
+final class GeminiLlm implements LlmClient {
+
+    private final Client client;
+    private final String model;
+
+    GeminiLlm(String apiKey, String model, int timeoutMillis) {
+        this.client = Client.builder()
+            .apiKey(apiKey)
+            .httpOptions(HttpOptions.builder().timeout(timeoutMillis).build())
+            .build();
+        this.model = model;
+    }
+
+    @Override
+    public Response generate(String prompt) {
+        GenerateContentResponse response;
+        try {
+            response = client.models.generateContent(model, prompt, null);
+        } catch (ApiException e) {
+            // 408 timeout, 429 quota/rate limit and 5xx are transient; other 4xx will fail the same way again
+            int code = e.code();
+            boolean retryable = code == 408 || code == 429 || code >= 500;
+            throw new LlmException("Gemini returned " + code + ": " + e.message(), retryable, e);
+        } catch (RuntimeException e) {
+            // Only network errors and timeouts are worth another attempt; anything else (a bad argument,
+            // a response the client cannot parse) fails the same way again
+            throw new LlmException("Gemini call failed: " + e.getMessage(), isTransient(e), e);
+        }
+
+        int promptTokens = 0;
+        int outputTokens = 0;
+        if (response.usageMetadata().isPresent()) {
+            GenerateContentResponseUsageMetadata usage = response.usageMetadata().get();
+            promptTokens = usage.promptTokenCount().orElse(0);
+            outputTokens = usage.candidatesTokenCount().orElse(0) + usage.thoughtsTokenCount().orElse(0);
+        }
+        return new Response(response.text(), promptTokens, outputTokens);
+    }
+
+    // The client wraps network errors and timeouts of its HTTP calls, sometimes more than once
+    private static boolean isTransient(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof GenAiIOException || cause instanceof IOException || cause instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void close() {
+        client.close();
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Fixed-bucket latency histogram in milliseconds, cheap enough to record from every worker thread.
+ */
+package org.example;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+final class Histogram {
+
+    // Upper bucket bounds; page loads and LLM calls reach minutes, database batches a few milliseconds
+    static final long[] BOUNDS_MILLIS = {
+        5, 10, 25, 50, 100, 250, 500, 1_000, 2_500, 5_000, 10_000, 30_000, 60_000, 120_000, 300_000
+    };
+
+    private final LongAdder[] buckets = new LongAdder[BOUNDS_MILLIS.length + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumMillis = new LongAdder();
+    private final LongAccumulator maxMillis = new LongAccumulator(Math::max, 0);
+
+    Histogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    void observe(long millis) {
+        int i = 0;
+        while (i < BOUNDS_MILLIS.length && millis > BOUNDS_MILLIS[i]) {
+            i++;
+        }
+        buckets[i].increment();
+        count.increment();
+        sumMillis.add(millis);
+        maxMillis.accumulate(millis);
+    }
+
+    long count() {
+        return count.sum();
+    }
+
+    long sumMillis() {
+        return sumMillis.sum();
+    }
+
+    long maxMillis() {
+        return maxMillis.get();
+    }
+
+    long meanMillis() {
+        long n = count();
+        return n == 0 ? 0 : sumMillis() / n;
+    }
+
+    // Upper bound of the bucket holding the quantile; the maximum for the overflow bucket
+    long quantileMillis(double quantile) {
+        long n = count();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * n);
+        long seen = 0;
+        for (int i = 0; i < BOUNDS_MILLIS.length; i++) {
+            seen += buckets[i].sum();
+            if (seen >= rank) {
+                return Math.min(BOUNDS_MILLIS[i], maxMillis());
+            }
+        }
+        return maxMillis();
+    }
+
+    // Prometheus text format: cumulative buckets in seconds, then sum and count
+    void writePrometheus(StringBuilder out, String name, String labels) {
+        String prefix = labels.isEmpty() ? "{" : "{" + labels + ",";
+        long cumulative = 0;
+        for (int i = 0; i < BOUNDS_MILLIS.length; i++) {
+            cumulative += buckets[i].sum();
+            out.append(name).append("_bucket").append(prefix).append("le=\"")
+                .append(seconds(BOUNDS_MILLIS[i])).append("\"} ").append(cumulative).append('\n');
+        }
+        cumulative += buckets[BOUNDS_MILLIS.length].sum();
+        out.append(name).append("_bucket").append(prefix).append("le=\"+Inf\"} ").append(cumulative).append('\n');
+        String suffix = labels.isEmpty() ? "" : "{" + labels + "}";
+        out.append(name).append("_sum").append(suffix).append(' ').append(seconds(sumMillis())).append('\n');
+        out.append(name).append("_count").append(suffix).append(' ').append(count()).append('\n');
+    }
+
+    private static String seconds(long millis) {
+        return String.format(Locale.ROOT, "%.3f", millis / 1000.0);
+    }
+}
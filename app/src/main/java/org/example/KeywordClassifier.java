@@ -0,0 +1,220 @@
+/*
+ * Aho-Corasick automaton that classifies a URL as cookie and/or privacy policy candidate in a single pass.
+ */
+package org.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+final class KeywordClassifier {
+
+    private static final String DEFAULT_RESOURCE = "/policy-keywords.txt";
+
+    private static final int COOKIE = 1;
+    private static final int PRIVACY = 2;
+
+    // Static assets often carry "cookie" in their name (consent scripts, banners) but are never the policy page
+    private static final String[] ASSET_SUFFIXES = {
+        ".js", ".css", ".json", ".png", ".jpg", ".jpeg", ".gif", ".svg", ".webp", ".woff", ".woff2"
+    };
+
+    record Classification(int cookieScore, int privacyScore) {
+
+        boolean isCookie() {
+            return cookieScore > 0;
+        }
+
+        boolean isPrivacy() {
+            return privacyScore > 0;
+        }
+    }
+
+    // ASCII symbols are looked up in an array, anything else (accented letters) through the map
+    private final int[] asciiSymbols = new int[128];
+    private final Map<Character, Integer> otherSymbols = new HashMap<>();
+    private final int alphabetSize;
+
+    // Dense transition table (state * alphabetSize + symbol) with failure links already folded in
+    private final int[] transitions;
+    // Scores of every keyword ending in a state, including those reached through failure links
+    private final int[] cookieWeights;
+    private final int[] privacyWeights;
+
+    private KeywordClassifier(Map<String, Integer> keywords) {
+        Arrays.fill(asciiSymbols, -1);
+        int symbols = 0;
+        for (String keyword : keywords.keySet()) {
+            for (char c : keyword.toCharArray()) {
+                if (symbolOf(c) < 0) {
+                    if (c < 128) {
+                        asciiSymbols[c] = symbols++;
+                    } else {
+                        otherSymbols.put(c, symbols++);
+                    }
+                }
+            }
+        }
+        this.alphabetSize = Math.max(1, symbols);
+
+        // 1. Trie
+        List<int[]> trie = new ArrayList<>();
+        List<Integer> masks = new ArrayList<>();
+        List<Integer> lengths = new ArrayList<>();
+        trie.add(newRow());
+        masks.add(0);
+        lengths.add(0);
+        for (Map.Entry<String, Integer> entry : keywords.entrySet()) {
+            int state = 0;
+            for (char c : entry.getKey().toCharArray()) {
+                int symbol = symbolOf(c);
+                int nextState = trie.get(state)[symbol];
+                if (nextState < 0) {
+                    nextState = trie.size();
+                    trie.add(newRow());
+                    masks.add(0);
+                    lengths.add(0);
+                    trie.get(state)[symbol] = nextState;
+                }
+                state = nextState;
+            }
+            masks.set(state, masks.get(state) | entry.getValue());
+            lengths.set(state, entry.getKey().length());
+        }
+
+        int states = trie.size();
+        this.transitions = new int[states * alphabetSize];
+        this.cookieWeights = new int[states];
+        this.privacyWeights = new int[states];
+
+        // 2. Breadth-first pass computing failure links and the complete transition function
+        int[] fail = new int[states];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int symbol = 0; symbol < alphabetSize; symbol++) {
+            int child = trie.get(0)[symbol];
+            if (child < 0) {
+                transitions[symbol] = 0;
+            } else {
+                transitions[symbol] = child;
+                fail[child] = 0;
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int length = lengths.get(state);
+            int mask = masks.get(state);
+            cookieWeights[state] = cookieWeights[fail[state]] + ((mask & COOKIE) != 0 ? length : 0);
+            privacyWeights[state] = privacyWeights[fail[state]] + ((mask & PRIVACY) != 0 ? length : 0);
+
+            for (int symbol = 0; symbol < alphabetSize; symbol++) {
+                int child = trie.get(state)[symbol];
+                if (child < 0) {
+                    transitions[state * alphabetSize + symbol] = transitions[fail[state] * alphabetSize + symbol];
+                } else {
+                    transitions[state * alphabetSize + symbol] = child;
+                    fail[child] = transitions[fail[state] * alphabetSize + symbol];
+                    queue.add(child);
+                }
+            }
+        }
+    }
+
+    // Loads the keyword tables from SCANNER_KEYWORDS_FILE if set, otherwise from the bundled defaults
+    static KeywordClassifier load() throws IOException {
+        String override = System.getenv("SCANNER_KEYWORDS_FILE");
+        if (override != null && !override.isBlank()) {
+            return parse(Files.readAllLines(Path.of(override), StandardCharsets.UTF_8));
+        }
+        try (InputStream in = KeywordClassifier.class.getResourceAsStream(DEFAULT_RESOURCE)) {
+            if (in == null) {
+                throw new IOException("Missing keyword resource " + DEFAULT_RESOURCE);
+            }
+            return parse(new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().toList());
+        }
+    }
+
+    static KeywordClassifier parse(List<String> lines) {
+        Map<String, Integer> keywords = new LinkedHashMap<>();
+        int section = 0;
+        for (String raw : lines) {
+            String line = raw.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            if (line.equalsIgnoreCase("[cookie]")) {
+                section = COOKIE;
+            } else if (line.equalsIgnoreCase("[privacy]")) {
+                section = PRIVACY;
+            } else if (section == 0) {
+                throw new IllegalArgumentException("Keyword outside of a [cookie] or [privacy] section: " + line);
+            } else {
+                keywords.merge(line.toLowerCase(Locale.ROOT), section, (a, b) -> a | b);
+            }
+        }
+        return new KeywordClassifier(keywords);
+    }
+
+    // Scores are the summed lengths of the matched keywords, so specific phrases outrank bare "cookie"
+    Classification classify(String url) {
+        String normalized = url.toLowerCase(Locale.ROOT);
+        int state = 0;
+        int cookieScore = 0;
+        int privacyScore = 0;
+        for (int i = 0; i < normalized.length(); i++) {
+            int symbol = symbolOf(normalized.charAt(i));
+            state = symbol < 0 ? 0 : transitions[state * alphabetSize + symbol];
+            cookieScore += cookieWeights[state];
+            privacyScore += privacyWeights[state];
+        }
+
+        if (isAsset(normalized)) {
+            cookieScore = (cookieScore + 3) / 4;
+            privacyScore = (privacyScore + 3) / 4;
+        }
+        return new Classification(cookieScore, privacyScore);
+    }
+
+    private static boolean isAsset(String url) {
+        int end = url.length();
+        int query = url.indexOf('?');
+        if (query >= 0) {
+            end = query;
+        }
+        int fragment = url.indexOf('#');
+        if (fragment >= 0 && fragment < end) {
+            end = fragment;
+        }
+        String path = url.substring(0, end);
+        for (String suffix : ASSET_SUFFIXES) {
+            if (path.endsWith(suffix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int symbolOf(char c) {
+        if (c < 128) {
+            return asciiSymbols[c];
+        }
+        Integer symbol = otherSymbols.get(c);
+        return symbol == null ? -1 : symbol;
+    }
+
+    private int[] newRow() {
+        int[] row = new int[alphabetSize];
+        Arrays.fill(row, -1);
+        return row;
+    }
+}
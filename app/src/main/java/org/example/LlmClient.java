@@ -0,0 +1,31 @@
+/*
+ * Pluggable access to the audit LLM, so the pipeline can run against Gemini or a local stub.
+ */
+package org.example;
+
+import java.util.concurrent.CompletableFuture;
+
+interface LlmClient extends AutoCloseable {
+
+    // Token counts are 0 when the backend does not report them
+    record Response(String text, int promptTokens, int outputTokens) {
+    }
+
+    Response generate(String prompt) throws LlmException, InterruptedException;
+
+    // Implementations that queue or limit calls override this; the default runs on the common pool
+    default CompletableFuture<Response> generateAsync(String prompt) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return generate(prompt);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new LlmException("Interrupted while waiting for the LLM", false, e);
+            }
+        });
+    }
+
+    @Override
+    default void close() {
+    }
+}
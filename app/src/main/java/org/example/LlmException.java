@@ -0,0 +1,20 @@
+/*
+ * Failed LLM call; retryable failures (throttling, server errors, timeouts) are worth another attempt.
+ */
+package org.example;
+
+final class LlmException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final boolean retryable;
+
+    LlmException(String message, boolean retryable, Throwable cause) {
+        super(message, cause);
+        this.retryable = retryable;
+    }
+
+    boolean isRetryable() {
+        return retryable;
+    }
+}
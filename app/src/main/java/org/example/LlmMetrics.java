@@ -0,0 +1,61 @@
+/*
+ * Call, retry, latency and token counters of the LLM access layer.
+ */
+package org.example;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+final class LlmMetrics {
+
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong promptTokens = new AtomicLong();
+    private final AtomicLong outputTokens = new AtomicLong();
+    private final Histogram latency = new Histogram();
+    private final AtomicLong throttledMillis = new AtomicLong();
+
+    void success(long millis, LlmClient.Response response) {
+        latency.observe(millis);
+        promptTokens.addAndGet(response.promptTokens());
+        outputTokens.addAndGet(response.outputTokens());
+    }
+
+    void failure(long millis) {
+        failures.incrementAndGet();
+        latency.observe(millis);
+    }
+
+    void retry() {
+        retries.incrementAndGet();
+    }
+
+    // Time spent waiting for the rate limits before a call was sent
+    void throttled(long millis) {
+        throttledMillis.addAndGet(millis);
+    }
+
+    // Latency of every call, failed ones included
+    Histogram latency() {
+        return latency;
+    }
+
+    Map<String, Long> counters() {
+        Map<String, Long> counters = new LinkedHashMap<>();
+        counters.put("llm_calls", latency.count());
+        counters.put("llm_failures", failures.get());
+        counters.put("llm_retries", retries.get());
+        counters.put("llm_prompt_tokens", promptTokens.get());
+        counters.put("llm_output_tokens", outputTokens.get());
+        counters.put("llm_throttled_ms", throttledMillis.get());
+        return counters;
+    }
+
+    String summary() {
+        return latency.count() + " call(s), " + failures.get() + " failed, " + retries.get() + " retried, avg "
+            + latency.meanMillis() + " ms, max " + latency.maxMillis() + " ms, "
+            + promptTokens.get() + " prompt / " + outputTokens.get() + " output tokens, "
+            + throttledMillis.get() + " ms waiting for rate limits";
+    }
+}
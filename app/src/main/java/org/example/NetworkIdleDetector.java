@@ -0,0 +1,141 @@
+/*
+ * Decides when a page has settled by tracking in-flight requests through the DevTools Network domain
+ * and cookie changes reported by the page.
+ */
+package org.example;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.v141.network.Network;
+import org.openqa.selenium.devtools.v141.performance.Performance;
+import org.openqa.selenium.devtools.v141.performance.model.Metric;
+import org.openqa.selenium.devtools.v141.runtime.Runtime;
+
+final class NetworkIdleDetector {
+
+    private static final long POLL_MILLIS = 100;
+
+    // Page function the consent script calls on every cookie change (see consent-scan.js)
+    static final String COOKIE_BINDING = "__scannerCookieChanged";
+
+    private final Duration quietWindow;
+    private final Duration hardCap;
+    private final int maxInFlight;
+
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final AtomicLong lastActivity = new AtomicLong(System.nanoTime());
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger cookieChanges = new AtomicInteger();
+    private DevTools devTools;
+
+    NetworkIdleDetector(Duration quietWindow, Duration hardCap, int maxInFlight) {
+        this.quietWindow = quietWindow;
+        this.hardCap = hardCap;
+        this.maxInFlight = maxInFlight;
+    }
+
+    // Subscribes to the request lifecycle events of the given DevTools session
+    void attach(DevTools devTools) {
+        this.devTools = devTools;
+        devTools.send(Network.enable(Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty()));
+        devTools.send(Performance.enable(Optional.empty()));
+
+        devTools.addListener(Network.requestWillBeSent(), event -> {
+            requests.incrementAndGet();
+            inFlight.add(event.getRequestId().toString());
+            touch();
+        });
+        devTools.addListener(Network.loadingFinished(), event -> {
+            inFlight.remove(event.getRequestId().toString());
+            touch();
+        });
+        devTools.addListener(Network.loadingFailed(), event -> {
+            inFlight.remove(event.getRequestId().toString());
+            touch();
+        });
+
+        // Cookie writes from scripts cause no request, so the page pushes them through a binding
+        devTools.send(Runtime.enable());
+        devTools.send(Runtime.addBinding(COOKIE_BINDING, Optional.empty(), Optional.empty()));
+        devTools.addListener(Runtime.bindingCalled(), event -> {
+            if (event.getName().equals(COOKIE_BINDING)) {
+                cookieChanges.incrementAndGet();
+                touch();
+            }
+        });
+    }
+
+    // Forget everything about the previous page; call right before navigating
+    void reset() {
+        inFlight.clear();
+        requests.set(0);
+        cookieChanges.set(0);
+        touch();
+    }
+
+    int requestCount() {
+        return requests.get();
+    }
+
+    int cookieChangeCount() {
+        return cookieChanges.get();
+    }
+
+    // Waits until at most maxInFlight requests are pending, nothing started or finished for the quiet
+    // window and the document reached DOMContentLoaded. Returns false if the hard cap ran out first.
+    boolean awaitIdle() throws InterruptedException {
+        return await(quietWindow, hardCap, true);
+    }
+
+    // Waits after an interaction (a consent click) until requests and cookie changes have been quiet for
+    // the given window, counted from now. Returns false if the cap ran out first.
+    boolean awaitQuiet(Duration quiet, Duration cap) throws InterruptedException {
+        cookieChanges.set(0);
+        touch();
+        return await(quiet, cap, false);
+    }
+
+    private boolean await(Duration quiet, Duration cap, boolean untilLoaded) throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + cap.toNanos();
+        long quietNanos = quiet.toNanos();
+
+        while (System.nanoTime() < deadline) {
+            long now = System.nanoTime();
+            if (inFlight.size() <= maxInFlight && now - lastActivity.get() >= quietNanos && (!untilLoaded || domContentLoaded())) {
+                return true;
+            }
+            Thread.sleep(POLL_MILLIS);
+        }
+        return false;
+    }
+
+    private void touch() {
+        lastActivity.set(System.nanoTime());
+    }
+
+    // Only asked once the network looks quiet, so it costs at most one round trip per poll
+    private boolean domContentLoaded() {
+        if (devTools == null) {
+            return true;
+        }
+        try {
+            List<Metric> metrics = devTools.send(Performance.getMetrics());
+            for (Metric metric : metrics) {
+                if (metric.getName().equals("DomContentLoaded")) {
+                    return metric.getValue().doubleValue() > 0;
+                }
+            }
+            return true;
+        } catch (RuntimeException e) {
+            // Metrics are only a refinement; never let them block the scan
+            return true;
+        }
+    }
+}
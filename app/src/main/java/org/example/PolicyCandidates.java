@@ -0,0 +1,94 @@
+/*
+ * Cookie and privacy policy URL candidates of one domain, ranked by keyword relevance.
+ */
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+final class PolicyCandidates {
+
+    record Candidate(String url, int score) {
+    }
+
+    // Highest score first; on a tie the shorter URL wins, it is usually the canonical page
+    private static final Comparator<Candidate> RANKING =
+        Comparator.comparingInt(Candidate::score).reversed().thenComparingInt(c -> c.url().length());
+
+    private final String shortDomain;
+    private final KeywordClassifier classifier;
+    private final List<Candidate> cookie = new ArrayList<>();
+    private final List<Candidate> privacy = new ArrayList<>();
+
+    PolicyCandidates(String shortDomain, KeywordClassifier classifier) {
+        this.shortDomain = shortDomain;
+        this.classifier = classifier;
+    }
+
+    // Only URLs from this domain are considered
+    void offer(String url) {
+        offer(url, "", 0);
+    }
+
+    // A link is also recognised by its text ("Política de cookies" -> "política-de-cookies"), since many
+    // policy URLs carry no keyword; the bonus ranks links from where policies are usually linked (the footer)
+    void offer(String url, String label, int bonus) {
+        if (!url.toLowerCase(Locale.ROOT).contains(shortDomain)) {
+            return;
+        }
+        KeywordClassifier.Classification byUrl = classifier.classify(url);
+        KeywordClassifier.Classification byLabel = label.isBlank()
+            ? byUrl
+            : classifier.classify(label.strip().replaceAll("\\s+", "-"));
+        int cookieScore = Math.max(byUrl.cookieScore(), byLabel.cookieScore());
+        int privacyScore = Math.max(byUrl.privacyScore(), byLabel.privacyScore());
+        if (cookieScore > 0) {
+            cookie.add(new Candidate(url, cookieScore + bonus));
+        }
+        if (privacyScore > 0) {
+            privacy.add(new Candidate(url, privacyScore + bonus));
+        }
+    }
+
+    boolean isEmpty() {
+        return cookie.isEmpty() && privacy.isEmpty();
+    }
+
+    List<Candidate> cookie() {
+        cookie.sort(RANKING);
+        return cookie;
+    }
+
+    List<Candidate> privacy() {
+        privacy.sort(RANKING);
+        return privacy;
+    }
+
+    // Best cookie policy URL, falling back to the best privacy URL (policies are often combined)
+    String bestCookieUrl() {
+        return best(cookie(), privacy());
+    }
+
+    String bestPrivacyUrl() {
+        return best(privacy(), cookie());
+    }
+
+    static String describe(List<Candidate> candidates) {
+        return candidates.stream()
+            .map(c -> c.url() + " (" + c.score() + ")")
+            .collect(Collectors.joining(", "));
+    }
+
+    private static String best(List<Candidate> preferred, List<Candidate> fallback) {
+        if (!preferred.isEmpty()) {
+            return preferred.get(0).url();
+        }
+        if (!fallback.isEmpty()) {
+            return fallback.get(0).url();
+        }
+        return "";
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Browserless policy URL discovery over plain HTTP: homepage anchors (footer links ranked first), then
+ * sitemap.xml, then well-known policy paths. Runs before the browser stage, so the browser is only needed
+ * for cookies and consent, and sites without any policy are flagged before a Chrome tab opens.
+ */
+package org.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+final class PolicyDiscovery {
+
+    private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36";
+
+    private static final Pattern ANCHOR = Pattern.compile(
+        "<a\\b[^>]*?\\bhref\\s*=\\s*(?:\"([^\"]*)\"|'([^']*)')[^>]*>(.*?)</a\\s*>", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern TAG = Pattern.compile("<[^>]*>");
+    private static final Pattern LOC = Pattern.compile("<loc>\\s*(?:<!\\[CDATA\\[)?(.*?)(?:]]>)?\\s*</loc>", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    // Footer links are where sites are expected to link their policies
+    private static final int FOOTER_BONUS = 2;
+
+    // Child sitemaps followed from a sitemap index; page sitemaps are tried before the (huge) article ones
+    private static final int MAX_CHILD_SITEMAPS = 2;
+
+    // Paths probed when neither the homepage nor the sitemap link a policy; only 2xx answers count
+    private static final List<String> WELL_KNOWN_PATHS = List.of(
+        "/privacy", "/privacy-policy", "/cookies", "/cookie-policy",
+        "/politica-de-privacidad", "/politica-de-cookies", "/privacidad", "/cookies-policy",
+        "/datenschutz", "/confidentialite", "/informativa-privacy", "/privacidade");
+
+    private final HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_2)
+        .followRedirects(HttpClient.Redirect.ALWAYS)
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+
+    private final KeywordClassifier classifier;
+    private final int maxBodyBytes;
+    private final Duration requestTimeout;
+
+    private record Page(URI uri, String body) {
+    }
+
+    // FOUND: candidates were found. NO_POLICY: the homepage was read and no source links a policy.
+    // UNREADABLE: nothing found, but the homepage could not be fetched (blocked, 4xx/5xx, timeout) or has no
+    // same-site links to judge by (rendered by JavaScript), so only the browser can tell.
+    enum Outcome { FOUND, NO_POLICY, UNREADABLE }
+
+    record Result(Outcome outcome, PolicyCandidates candidates) {
+    }
+
+    PolicyDiscovery(KeywordClassifier classifier, int maxBodyBytes, Duration requestTimeout) {
+        this.classifier = classifier;
+        this.maxBodyBytes = maxBodyBytes;
+        this.requestTimeout = requestTimeout;
+    }
+
+    // Ranked candidates of the domain, and whether an empty result means the site really links no policy
+    Result discover(DomainScan scan) throws InterruptedException {
+        PolicyCandidates candidates = new PolicyCandidates(scan.shortDomain, classifier);
+        URI home = URI.create(scan.domain);
+        // URI.resolve drops the slash between host and relative links on an empty path
+        if (home.getRawPath() == null || home.getRawPath().isEmpty()) {
+            home = home.resolve("/");
+        }
+
+        Page homepage = get(home);
+        boolean readable = false;
+        if (homepage != null) {
+            readable = offerAnchors(candidates, homepage, scan.shortDomain) > 0;
+            if (!candidates.isEmpty()) {
+                System.out.println("Policy URLs of " + scan.domain + " found on the homepage");
+                return new Result(Outcome.FOUND, candidates);
+            }
+        }
+
+        URI base = homepage != null ? homepage.uri() : home;
+        offerSitemap(candidates, base.resolve("/sitemap.xml"));
+        if (!candidates.isEmpty()) {
+            System.out.println("Policy URLs of " + scan.domain + " found in the sitemap");
+            return new Result(Outcome.FOUND, candidates);
+        }
+
+        offerWellKnownPaths(candidates, base);
+        if (!candidates.isEmpty()) {
+            System.out.println("Policy URLs of " + scan.domain + " found at well-known paths");
+            return new Result(Outcome.FOUND, candidates);
+        }
+        return new Result(readable ? Outcome.NO_POLICY : Outcome.UNREADABLE, candidates);
+    }
+
+    // Every anchor once, with its link text and whether it sits in the footer; returns the number of
+    // distinct same-site links, so a page without any can be told apart from one without policy links
+    private static int offerAnchors(PolicyCandidates candidates, Page page, String shortDomain) {
+        String html = page.body();
+        int footer = html.toLowerCase(Locale.ROOT).lastIndexOf("<footer");
+        Map<String, String> labels = new LinkedHashMap<>();
+        Map<String, Integer> bonuses = new LinkedHashMap<>();
+        Matcher anchor = ANCHOR.matcher(html);
+        while (anchor.find()) {
+            String href = anchor.group(1) != null ? anchor.group(1) : anchor.group(2);
+            String url = resolve(page.uri(), href);
+            if (url == null) {
+                continue;
+            }
+            String label = TAG.matcher(anchor.group(3)).replaceAll(" ").replace("&nbsp;", " ").strip();
+            labels.merge(url, label, (a, b) -> a.length() >= b.length() ? a : b);
+            bonuses.merge(url, footer >= 0 && anchor.start() > footer ? FOOTER_BONUS : 0, Math::max);
+        }
+        labels.forEach((url, label) -> candidates.offer(url, label, bonuses.get(url)));
+        return (int) labels.keySet().stream().filter(url -> url.toLowerCase(Locale.ROOT).contains(shortDomain)).count();
+    }
+
+    private void offerSitemap(PolicyCandidates candidates, URI sitemap) throws InterruptedException {
+        Page page = get(sitemap);
+        if (page == null) {
+            return;
+        }
+        List<String> locs = locs(page.body());
+        if (!page.body().contains("<sitemapindex")) {
+            offerLocs(candidates, locs);
+            return;
+        }
+        List<String> children = new ArrayList<>(locs);
+        children.sort((a, b) -> Boolean.compare(!isPageSitemap(a), !isPageSitemap(b)));
+        for (String child : children.subList(0, Math.min(MAX_CHILD_SITEMAPS, children.size()))) {
+            // A malformed <loc> only costs its own entry
+            String url = resolve(page.uri(), child);
+            Page childPage = url == null ? null : get(URI.create(url));
+            if (childPage != null) {
+                offerLocs(candidates, locs(childPage.body()));
+            }
+        }
+    }
+
+    private static void offerLocs(PolicyCandidates candidates, List<String> locs) {
+        for (String loc : locs) {
+            if (!loc.toLowerCase(Locale.ROOT).endsWith(".xml")) {
+                candidates.offer(loc);
+            }
+        }
+    }
+
+    // All paths at once. A site that answers 200 for a made-up path has soft 404s, so its probes prove nothing.
+    // The probed path is the label, so a redirect to a policy page without a keyword in its URL still counts.
+    private void offerWellKnownPaths(PolicyCandidates candidates, URI base) {
+        if (landing(base.resolve("/" + UUID.randomUUID())).join() != null) {
+            return;
+        }
+        Map<String, CompletableFuture<URI>> probes = new LinkedHashMap<>();
+        for (String path : WELL_KNOWN_PATHS) {
+            probes.put(path, landing(base.resolve(path)));
+        }
+        probes.forEach((path, probe) -> {
+            URI landed = probe.join();
+            if (landed != null) {
+                candidates.offer(landed.toString(), path.substring(1), 0);
+            }
+        });
+    }
+
+    // Body of a 2xx answer (at most maxBodyBytes) and the URI it was served from after redirects, or null
+    private Page get(URI uri) throws InterruptedException {
+        try {
+            HttpResponse<InputStream> response = client.send(request(uri), HttpResponse.BodyHandlers.ofInputStream());
+            try (InputStream in = response.body()) {
+                if (response.statusCode() / 100 != 2) {
+                    System.out.println("Discovery could not fetch " + uri + ": status " + response.statusCode());
+                    return null;
+                }
+                URI served = response.uri().getRawPath().isEmpty() ? response.uri().resolve("/") : response.uri();
+                return new Page(served, new String(in.readNBytes(maxBodyBytes), PolicyFetcher.charsetOf(response)));
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Discovery could not fetch " + uri + ": " + e);
+            return null;
+        }
+    }
+
+    // Where a 2xx answer was served from after redirects; null for errors and for redirects to the homepage
+    private CompletableFuture<URI> landing(URI uri) {
+        return client.sendAsync(request(uri), HttpResponse.BodyHandlers.discarding())
+            .thenApply(response -> response.statusCode() / 100 == 2 && response.uri().getRawPath().length() > 1
+                ? response.uri()
+                : null)
+            .exceptionally(e -> null);
+    }
+
+    private HttpRequest request(URI uri) {
+        return HttpRequest.newBuilder()
+            .uri(uri)
+            .timeout(requestTimeout)
+            .header("User-Agent", USER_AGENT)
+            .GET()
+            .build();
+    }
+
+    private static List<String> locs(String xml) {
+        List<String> locs = new ArrayList<>();
+        Matcher loc = LOC.matcher(xml);
+        while (loc.find()) {
+            locs.add(loc.group(1).replace("&amp;", "&").strip());
+        }
+        return locs;
+    }
+
+    private static boolean isPageSitemap(String url) {
+        String lower = url.toLowerCase(Locale.ROOT);
+        return lower.contains("page") || lower.contains("static") || lower.contains("legal");
+    }
+
+    // Absolute http(s) URL of a link without its fragment, or null for mail, script and in-page links
+    private static String resolve(URI base, String href) {
+        String link = href.replace("&amp;", "&").strip();
+        if (link.isEmpty() || link.startsWith("#")) {
+            return null;
+        }
+        try {
+            URI resolved = base.resolve(link.replace(" ", "%20"));
+            String scheme = resolved.getScheme();
+            if (scheme == null || !(scheme.equalsIgnoreCase("http") || scheme.equalsIgnoreCase("https"))) {
+                return null;
+            }
+            String url = resolved.toString();
+            int fragment = url.indexOf('#');
+            return fragment >= 0 ? url.substring(0, fragment) : url;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
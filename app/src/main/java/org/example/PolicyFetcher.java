@@ -0,0 +1,256 @@
+/*
+ * Long-lived HTTP/2 client for policy pages with concurrent fetches and an on-disk conditional-GET cache.
+ */
+package org.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+
+final class PolicyFetcher {
+
+    private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36";
+
+    private final HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_2)
+        .followRedirects(HttpClient.Redirect.ALWAYS)
+        .connectTimeout(Duration.ofSeconds(10))
+        .build();
+
+    private final int maxBodyBytes;
+    private final Duration requestTimeout;
+    // Null disables the validator cache
+    private final Path cacheDirectory;
+
+    PolicyFetcher(int maxBodyBytes, Duration requestTimeout, Path cacheDirectory) throws IOException {
+        this.maxBodyBytes = maxBodyBytes;
+        this.requestTimeout = requestTimeout;
+        this.cacheDirectory = cacheDirectory;
+        if (cacheDirectory != null) {
+            Files.createDirectories(cacheDirectory);
+        }
+    }
+
+    // Fetches all URLs concurrently, each distinct URL once; failed fetches map to an empty string
+    Map<String, String> fetchAll(List<String> urls) {
+        Map<String, CompletableFuture<String>> pending = new LinkedHashMap<>();
+        for (String url : urls) {
+            pending.computeIfAbsent(cleanUrl(url), this::fetchAsync);
+        }
+
+        Map<String, String> bodies = new LinkedHashMap<>();
+        for (String url : urls) {
+            bodies.put(url, pending.get(cleanUrl(url)).join());
+        }
+        return bodies;
+    }
+
+    String fetch(String url) {
+        return fetchAsync(cleanUrl(url)).join();
+    }
+
+    private CompletableFuture<String> fetchAsync(String url) {
+        HttpRequest request;
+        Properties validators;
+        try {
+            validators = readValidators(url);
+            HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .timeout(requestTimeout)
+                .header("User-Agent", USER_AGENT)
+                .GET();
+            if (validators.getProperty("etag") != null) {
+                builder.header("If-None-Match", validators.getProperty("etag"));
+            }
+            if (validators.getProperty("last-modified") != null) {
+                builder.header("If-Modified-Since", validators.getProperty("last-modified"));
+            }
+            request = builder.build();
+        } catch (RuntimeException e) {
+            System.out.println("Exception fetching URL " + url + ": " + e.getMessage());
+            return CompletableFuture.completedFuture("");
+        }
+
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+            .thenApply(response -> handle(url, response, validators))
+            .exceptionally(e -> {
+                System.out.println("Exception fetching URL " + url + ": " + e.getMessage());
+                return "";
+            });
+    }
+
+    private String handle(String url, HttpResponse<InputStream> response, Properties validators) {
+        try (InputStream in = response.body()) {
+            int status = response.statusCode();
+
+            if (status == 304) {
+                String cached = readCachedBody(url);
+                if (cached != null) {
+                    System.out.println("Policy unchanged since last scan (304): " + url);
+                    return cached;
+                }
+                System.out.println("Got 304 but the cached body is missing: " + url);
+                return "";
+            }
+
+            if (status < 200 || status >= 300) {
+                System.out.println("Failed to fetch URL: " + url + " Status: " + status);
+                return "";
+            }
+
+            // Read at most maxBodyBytes; the rest of the document is never downloaded into memory
+            byte[] bytes = in.readNBytes(maxBodyBytes);
+            String body = new String(bytes, charsetOf(response));
+            writeCache(url, response, body);
+            return body;
+
+        } catch (IOException e) {
+            System.out.println("Exception fetching URL " + url + ": " + e.getMessage());
+            return "";
+        }
+    }
+
+    // Handle if Gemini returns markdown link format e.g. [label](url) or just url
+    static String cleanUrl(String urlString) {
+        if (urlString.startsWith("http")) {
+            return urlString;
+        }
+        int httpIdx = urlString.indexOf("http");
+        if (httpIdx >= 0) {
+            urlString = urlString.substring(httpIdx);
+            int endIdx = urlString.indexOf(" ");
+            if (endIdx > 0) urlString = urlString.substring(0, endIdx);
+            endIdx = urlString.indexOf(")");
+            if (endIdx > 0) urlString = urlString.substring(0, endIdx);
+        }
+        return urlString;
+    }
+
+    static Charset charsetOf(HttpResponse<?> response) {
+        String contentType = response.headers().firstValue("Content-Type").orElse("");
+        int idx = contentType.toLowerCase(Locale.ROOT).indexOf("charset=");
+        if (idx >= 0) {
+            String name = contentType.substring(idx + 8).replace("\"", "").split(";")[0].trim();
+            try {
+                return Charset.forName(name);
+            } catch (RuntimeException e) {
+                // Unknown or malformed charset, fall through to UTF-8
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    // Validators and body of each URL live in <sha256>.properties and <sha256>.html
+    private Properties readValidators(String url) {
+        Properties validators = new Properties();
+        if (cacheDirectory == null) {
+            return validators;
+        }
+        Path meta = cacheDirectory.resolve(key(url) + ".properties");
+        Path body = cacheDirectory.resolve(key(url) + ".html");
+        if (Files.exists(meta) && Files.exists(body)) {
+            try (Reader reader = Files.newBufferedReader(meta, StandardCharsets.UTF_8)) {
+                validators.load(reader);
+            } catch (IOException e) {
+                System.out.println("Warning: Ignoring unreadable cache entry for " + url + ": " + e.getMessage());
+                validators.clear();
+            }
+        }
+        return validators;
+    }
+
+    private String readCachedBody(String url) {
+        if (cacheDirectory == null) {
+            return null;
+        }
+        try {
+            return Files.readString(cacheDirectory.resolve(key(url) + ".html"), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void writeCache(String url, HttpResponse<?> response, String body) {
+        if (cacheDirectory == null) {
+            return;
+        }
+        String etag = response.headers().firstValue("ETag").orElse(null);
+        String lastModified = response.headers().firstValue("Last-Modified").orElse(null);
+        if (etag == null && lastModified == null) {
+            return;
+        }
+
+        Properties validators = new Properties();
+        validators.setProperty("url", url);
+        if (etag != null) {
+            validators.setProperty("etag", etag);
+        }
+        if (lastModified != null) {
+            validators.setProperty("last-modified", lastModified);
+        }
+
+        // Both files are written to temporary files and moved into place, so a crash or a concurrent fetch of
+        // the same URL never leaves a torn file. The old validators go first and the new ones come last:
+        // a body is only revalidated with the validators it was stored with.
+        String key = key(url);
+        Path bodyFile = cacheDirectory.resolve(key + ".html");
+        Path metaFile = cacheDirectory.resolve(key + ".properties");
+        Path bodyTemp = null;
+        Path metaTemp = null;
+        try {
+            bodyTemp = Files.createTempFile(cacheDirectory, key, ".html.tmp");
+            Files.writeString(bodyTemp, body, StandardCharsets.UTF_8);
+            metaTemp = Files.createTempFile(cacheDirectory, key, ".properties.tmp");
+            try (Writer writer = Files.newBufferedWriter(metaTemp, StandardCharsets.UTF_8)) {
+                validators.store(writer, null);
+            }
+            Files.deleteIfExists(metaFile);
+            Files.move(bodyTemp, bodyFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(metaTemp, metaFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.out.println("Warning: Could not cache policy " + url + ": " + e.getMessage());
+            deleteQuietly(bodyTemp);
+            deleteQuietly(metaTemp);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // A leftover temporary file is never read as a cache entry
+        }
+    }
+
+    private static String key(String url) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(url.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
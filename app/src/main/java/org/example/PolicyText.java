@@ -0,0 +1,303 @@
+/*
+ * Turns fetched policy HTML into compact, section-aware plain text and fits it into a token budget.
+ */
+package org.example;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+final class PolicyText {
+
+    // Rough average for European languages; only used to size the budget, not for billing
+    static final int CHARS_PER_TOKEN = 4;
+
+    // Content of these elements never contains policy text. Forms are kept: some frameworks wrap the whole page in one.
+    private static final Set<String> SKIPPED = Set.of(
+        "script", "style", "noscript", "template", "svg", "canvas", "iframe",
+        "nav", "footer", "aside", "button", "select", "dialog");
+
+    // ARIA landmarks used for navigation and site chrome on pages without semantic tags
+    private static final Set<String> SKIPPED_ROLES = Set.of("navigation", "banner", "contentinfo", "search", "dialog", "menu", "menubar");
+
+    private static final Set<String> BLOCKS = Set.of(
+        "p", "div", "section", "article", "main", "header", "ul", "ol", "dl", "dt", "dd", "table", "thead",
+        "tbody", "tr", "blockquote", "pre", "address", "figure", "figcaption", "details", "summary", "br", "hr");
+
+    private static final Set<String> VOID = Set.of(
+        "br", "hr", "img", "input", "meta", "link", "area", "base", "col", "embed", "source", "track", "wbr");
+
+    private static final Map<String, String> ENTITIES = Map.ofEntries(
+        Map.entry("amp", "&"), Map.entry("lt", "<"), Map.entry("gt", ">"), Map.entry("quot", "\""),
+        Map.entry("apos", "'"), Map.entry("nbsp", " "), Map.entry("shy", ""), Map.entry("laquo", "«"),
+        Map.entry("raquo", "»"), Map.entry("euro", "€"), Map.entry("copy", "©"), Map.entry("reg", "®"),
+        Map.entry("ndash", "–"), Map.entry("mdash", "—"), Map.entry("hellip", "…"),
+        Map.entry("lsquo", "‘"), Map.entry("rsquo", "’"), Map.entry("ldquo", "“"), Map.entry("rdquo", "”"));
+
+    // Paragraphs at least this long are dropped when they repeat (cookie banners, repeated notices)
+    private static final int DEDUP_MIN_CHARS = 30;
+
+    private static final String TRUNCATED = "\n[... remaining text omitted to fit the token budget ...]";
+
+    private PolicyText() {
+    }
+
+    static int estimateTokens(String text) {
+        return (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+
+    // Visible text with headings as "## " lines, list items as "- " and table cells separated by " | "
+    static String fromHtml(String html) {
+        if (html == null || html.isEmpty()) {
+            return "";
+        }
+
+        Lines out = new Lines();
+        // Name of the element whose content is being skipped and how deep it is nested in itself
+        String skipping = null;
+        int skipDepth = 0;
+
+        int i = 0;
+        int n = html.length();
+        while (i < n) {
+            char c = html.charAt(i);
+            if (c != '<') {
+                int next = html.indexOf('<', i);
+                int end = next < 0 ? n : next;
+                if (skipping == null) {
+                    out.text(decode(html, i, end));
+                }
+                i = end;
+                continue;
+            }
+
+            if (html.startsWith("<!--", i)) {
+                int end = html.indexOf("-->", i + 4);
+                i = end < 0 ? n : end + 3;
+                continue;
+            }
+
+            int end = tagEnd(html, i);
+            if (end < 0) {
+                break;
+            }
+            String tag = html.substring(i + 1, end);
+            i = end + 1;
+            if (tag.isEmpty() || tag.charAt(0) == '!' || tag.charAt(0) == '?') {
+                continue;
+            }
+
+            boolean closing = tag.charAt(0) == '/';
+            String name = tagName(tag, closing ? 1 : 0);
+            if (name.isEmpty()) {
+                continue;
+            }
+
+            if (skipping != null) {
+                if (name.equals(skipping)) {
+                    skipDepth += closing ? -1 : (tag.endsWith("/") ? 0 : 1);
+                    if (skipDepth == 0) {
+                        skipping = null;
+                    }
+                }
+                continue;
+            }
+
+            if (!closing && (SKIPPED.contains(name) || hasSkippedRole(tag)) && !VOID.contains(name) && !tag.endsWith("/")) {
+                skipping = name;
+                skipDepth = 1;
+                // Raw text elements may contain '<' that is not a tag, so jump straight to their end tag
+                if (name.equals("script") || name.equals("style") || name.equals("template")) {
+                    int close = indexOfIgnoreCase(html, "</" + name, i);
+                    i = close < 0 ? n : close;
+                }
+                continue;
+            }
+
+            if (name.length() == 2 && name.charAt(0) == 'h' && name.charAt(1) >= '1' && name.charAt(1) <= '6') {
+                out.newLine();
+                if (!closing) {
+                    out.text("## ");
+                }
+            } else if (name.equals("li")) {
+                out.newLine();
+                if (!closing) {
+                    out.text("- ");
+                }
+            } else if (name.equals("td") || name.equals("th")) {
+                if (!closing) {
+                    out.cell();
+                }
+            } else if (BLOCKS.contains(name)) {
+                out.newLine();
+            }
+        }
+        return out.finish();
+    }
+
+    // Cuts the text at the last paragraph boundary that fits, so no section is cut mid-sentence
+    static String truncate(String text, int maxTokens) {
+        int maxChars = maxTokens * CHARS_PER_TOKEN;
+        if (text.length() <= maxChars) {
+            return text;
+        }
+        int cut = text.lastIndexOf('\n', maxChars - TRUNCATED.length());
+        if (cut <= 0) {
+            cut = Math.max(0, maxChars - TRUNCATED.length());
+        }
+        return text.substring(0, cut) + TRUNCATED;
+    }
+
+    // Splits the budget between two documents; whatever the shorter one does not need goes to the other
+    static String[] fitBudget(String first, String second, int maxTokens) {
+        int half = maxTokens / 2;
+        int firstTokens = estimateTokens(first);
+        int secondTokens = estimateTokens(second);
+        if (firstTokens < half) {
+            return new String[] { first, truncate(second, maxTokens - firstTokens) };
+        }
+        if (secondTokens < half) {
+            return new String[] { truncate(first, maxTokens - secondTokens), second };
+        }
+        return new String[] { truncate(first, half), truncate(second, maxTokens - half) };
+    }
+
+    private static int tagEnd(String html, int start) {
+        char quote = 0;
+        for (int i = start + 1; i < html.length(); i++) {
+            char c = html.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '>') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String tagName(String tag, int from) {
+        int end = from;
+        while (end < tag.length() && (Character.isLetterOrDigit(tag.charAt(end)) || tag.charAt(end) == '-')) {
+            end++;
+        }
+        return tag.substring(from, end).toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean hasSkippedRole(String tag) {
+        String lower = tag.toLowerCase(Locale.ROOT);
+        int idx = lower.indexOf("role=");
+        if (idx < 0) {
+            return false;
+        }
+        int start = idx + 5;
+        if (start < lower.length() && (lower.charAt(start) == '"' || lower.charAt(start) == '\'')) {
+            start++;
+        }
+        int end = start;
+        while (end < lower.length() && Character.isLetter(lower.charAt(end))) {
+            end++;
+        }
+        return SKIPPED_ROLES.contains(lower.substring(start, end));
+    }
+
+    private static int indexOfIgnoreCase(String html, String needle, int from) {
+        for (int i = from; i <= html.length() - needle.length(); i++) {
+            if (html.regionMatches(true, i, needle, 0, needle.length())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String decode(String html, int start, int end) {
+        int amp = html.indexOf('&', start);
+        if (amp < 0 || amp >= end) {
+            return html.substring(start, end);
+        }
+        StringBuilder sb = new StringBuilder(end - start);
+        int i = start;
+        while (i < end) {
+            char c = html.charAt(i);
+            int semi = c == '&' ? html.indexOf(';', i) : -1;
+            if (semi > i + 1 && semi < end && semi - i <= 10) {
+                String entity = html.substring(i + 1, semi);
+                String value = decodeEntity(entity);
+                if (value != null) {
+                    sb.append(value);
+                    i = semi + 1;
+                    continue;
+                }
+            }
+            sb.append(c);
+            i++;
+        }
+        return sb.toString();
+    }
+
+    private static String decodeEntity(String entity) {
+        if (entity.charAt(0) != '#') {
+            return ENTITIES.get(entity.toLowerCase(Locale.ROOT));
+        }
+        try {
+            int codePoint = entity.length() > 1 && (entity.charAt(1) == 'x' || entity.charAt(1) == 'X')
+                ? Integer.parseInt(entity.substring(2), 16)
+                : Integer.parseInt(entity.substring(1));
+            return Character.isValidCodePoint(codePoint) ? new String(Character.toChars(codePoint)) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Accumulates text line by line, collapsing whitespace and dropping repeated paragraphs
+    private static final class Lines {
+        private final StringBuilder out = new StringBuilder();
+        private final StringBuilder line = new StringBuilder();
+        private final Set<String> seen = new HashSet<>();
+        private boolean pendingSpace = false;
+
+        void text(String text) {
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (Character.isWhitespace(c) || c == '\u00A0') {
+                    pendingSpace = line.length() > 0;
+                } else {
+                    if (pendingSpace) {
+                        line.append(' ');
+                        pendingSpace = false;
+                    }
+                    line.append(c);
+                }
+            }
+        }
+
+        void cell() {
+            if (line.length() > 0) {
+                line.append(" | ");
+            }
+            pendingSpace = false;
+        }
+
+        void newLine() {
+            pendingSpace = false;
+            String value = line.toString().trim();
+            line.setLength(0);
+            if (value.isEmpty() || value.equals("-") || value.equals("##")) {
+                return;
+            }
+            if (value.length() >= DEDUP_MIN_CHARS && !seen.add(value)) {
+                return;
+            }
+            out.append(value).append('\n');
+        }
+
+        String finish() {
+            newLine();
+            return out.toString().trim();
+        }
+    }
+}
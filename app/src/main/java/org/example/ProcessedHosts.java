@@ -0,0 +1,59 @@
+/*
+ * In-memory view of the hostnames that already have a row in host_results.
+ */
+package org.example;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+final class ProcessedHosts {
+
+    private final Set<String> hostnames = ConcurrentHashMap.newKeySet();
+
+    // Loads every processed hostname with a single streaming query
+    static ProcessedHosts load(Connection connection) throws SQLException {
+        ProcessedHosts processed = new ProcessedHosts();
+        try (Statement stmt = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            // Integer.MIN_VALUE makes Connector/J stream rows instead of buffering the whole result
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            try (ResultSet rs = stmt.executeQuery("SELECT DISTINCT hostname FROM host_results")) {
+                while (rs.next()) {
+                    processed.hostnames.add(rs.getString(1));
+                }
+            }
+        }
+        return processed;
+    }
+
+    int size() {
+        return hostnames.size();
+    }
+
+    boolean contains(String domain) {
+        return hostnames.contains(domain);
+    }
+
+    void add(String domain) {
+        hostnames.add(domain);
+    }
+
+    // Domains that still need a scan, without duplicates and in their original order
+    List<String> pending(List<String> domains) {
+        List<String> pending = new ArrayList<>();
+        for (String domain : new LinkedHashSet<>(domains)) {
+            if (contains(domain)) {
+                System.out.println("Domain FOUND in database, skipping processing: " + domain);
+            } else {
+                pending.add(domain);
+            }
+        }
+        return pending;
+    }
+}
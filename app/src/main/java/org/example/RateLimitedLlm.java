@@ -0,0 +1,106 @@
+/*
+ * Wraps an LLM backend with a cap on requests in flight, request and token rate limits, and jittered retries.
+ */
+package org.example;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+final class RateLimitedLlm implements LlmClient {
+
+    private static final long BASE_BACKOFF_MILLIS = 1_000;
+    private static final long MAX_BACKOFF_MILLIS = 60_000;
+
+    // Output is not known before the call; this much is reserved and corrected afterwards
+    private static final int EXPECTED_OUTPUT_TOKENS = 2_000;
+
+    private final LlmClient delegate;
+    private final TokenBucket requests;
+    private final TokenBucket tokens;
+    private final int maxRetries;
+    private final ExecutorService inFlight;
+    private final LlmMetrics metrics = new LlmMetrics();
+
+    RateLimitedLlm(LlmClient delegate, int maxInFlight, int requestsPerMinute, int tokensPerMinute, int maxRetries) {
+        this.delegate = delegate;
+        this.requests = new TokenBucket(requestsPerMinute);
+        this.tokens = new TokenBucket(tokensPerMinute);
+        this.maxRetries = maxRetries;
+        AtomicInteger ids = new AtomicInteger();
+        this.inFlight = Executors.newFixedThreadPool(maxInFlight, runnable -> {
+            Thread thread = new Thread(runnable, "llm-" + ids.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    LlmMetrics metrics() {
+        return metrics;
+    }
+
+    @Override
+    public Response generate(String prompt) throws InterruptedException {
+        try {
+            return generateAsync(prompt).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof LlmException llm) {
+                throw llm;
+            }
+            throw new LlmException("LLM call failed: " + e.getCause().getMessage(), false, e.getCause());
+        }
+    }
+
+    // Queues the call; at most maxInFlight calls run at the same time, the rest wait in order
+    @Override
+    public CompletableFuture<Response> generateAsync(String prompt) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return call(prompt);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new LlmException("Interrupted while waiting for the LLM", false, e);
+            }
+        }, inFlight);
+    }
+
+    @Override
+    public void close() {
+        inFlight.shutdownNow();
+        delegate.close();
+    }
+
+    private Response call(String prompt) throws InterruptedException {
+        int estimate = PolicyText.estimateTokens(prompt) + EXPECTED_OUTPUT_TOKENS;
+        for (int attempt = 0; ; attempt++) {
+            long waitStart = System.nanoTime();
+            requests.acquire(1);
+            tokens.acquire(estimate);
+            metrics.throttled((System.nanoTime() - waitStart) / 1_000_000);
+
+            long start = System.nanoTime();
+            try {
+                Response response = delegate.generate(prompt);
+                metrics.success((System.nanoTime() - start) / 1_000_000, response);
+                if (response.promptTokens() > 0) {
+                    tokens.adjust(response.promptTokens() + response.outputTokens() - estimate);
+                }
+                return response;
+            } catch (LlmException e) {
+                metrics.failure((System.nanoTime() - start) / 1_000_000);
+                if (!e.isRetryable() || attempt >= maxRetries) {
+                    throw e;
+                }
+                metrics.retry();
+                // Jittered exponential backoff, so throttled workers do not all retry in lockstep
+                long bound = Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << attempt);
+                long backoff = ThreadLocalRandom.current().nextLong(bound / 2, bound + 1);
+                System.out.println("LLM call failed (" + e.getMessage() + "), retry " + (attempt + 1) + "/" + maxRetries + " in " + backoff + " ms");
+                Thread.sleep(backoff);
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Optional scan mode that stops the browser from downloading images, fonts, media and known heavy endpoints.
+ */
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.v141.network.Network;
+import org.openqa.selenium.devtools.v141.network.model.BlockedReason;
+
+final class ResourceBlocker {
+
+    // The Network domain blocks by URL pattern only, so each resource type maps to its usual extensions.
+    // GIF is left out on purpose: tracking pixels are mostly GIFs and some of them set cookies.
+    private static final Map<String, List<String>> TYPE_EXTENSIONS = Map.of(
+        "image", List.of(".png", ".jpg", ".jpeg", ".webp", ".avif", ".svg", ".ico", ".bmp"),
+        "font", List.of(".woff", ".woff2", ".ttf", ".otf", ".eot"),
+        "media", List.of(".mp4", ".webm", ".m4v", ".mov", ".mp3", ".m4a", ".ogg", ".m3u8", ".mpd"),
+        "stylesheet", List.of(".css")
+    );
+
+    private final List<String> patterns;
+    private final AtomicInteger blocked = new AtomicInteger();
+
+    ResourceBlocker(List<String> types, List<String> extraPatterns) {
+        List<String> all = new ArrayList<>();
+        for (String type : types) {
+            List<String> extensions = TYPE_EXTENSIONS.get(type.toLowerCase(Locale.ROOT));
+            if (extensions == null) {
+                System.out.println("Ignoring unknown resource type to block: " + type);
+                continue;
+            }
+            // Assets are usually versioned ("logo.png?v=3"), and a pattern must match the whole URL.
+            // Not "*.png*": that would also block scripts such as "/icons.icomoon.js".
+            for (String extension : extensions) {
+                all.add("*" + extension);
+                all.add("*" + extension + "?*");
+            }
+        }
+        all.addAll(extraPatterns);
+        this.patterns = List.copyOf(all);
+        System.out.println("Resource blocking mode: " + patterns.size() + " URL pattern(s) blocked");
+    }
+
+    // Installs the block list on the session; Network must already be enabled on it. Only the requests this
+    // list blocked (reason "inspector") are counted, not the CSP, mixed-content or ORB blocks Chrome makes anyway.
+    void attach(DevTools devTools) {
+        devTools.send(Network.setBlockedURLs(patterns));
+        devTools.addListener(Network.loadingFailed(), event -> {
+            if (event.getBlockedReason().filter(reason -> reason == BlockedReason.INSPECTOR).isPresent()) {
+                blocked.incrementAndGet();
+            }
+        });
+    }
+
+    void reset() {
+        blocked.set(0);
+    }
+
+    int blockedCount() {
+        return blocked.get();
+    }
+}
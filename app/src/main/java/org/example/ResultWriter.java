@@ -0,0 +1,162 @@
+/*
+ * Final pipeline step: collects finished audits and writes them in JDBC batches, the raw JSON to host_results
+ * and the validated audit to the normalized audit tables, in one transaction.
+ */
+package org.example;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+
+final class ResultWriter implements Sink<DomainScan> {
+
+    private static final String INSERT = "INSERT INTO host_results (hostname, results, version, privacy_hash, cookies_hash, inventory_hash) "
+        + "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final DataSource dataSource;
+    private final ProcessedHosts processed;
+    // Null outside a scan run (batch ingest)
+    private final WorkTracker journal;
+    private final ScanMetrics metrics;
+    private final int batchSize;
+    private final long flushMillis;
+    private final BlockingQueue<DomainScan> queue = new LinkedBlockingQueue<>();
+    private final Thread thread = new Thread(this::run, "result-writer");
+    private volatile boolean closed = false;
+
+    ResultWriter(DataSource dataSource, ProcessedHosts processed, WorkTracker journal, ScanMetrics metrics,
+                 int batchSize, long flushMillis) {
+        this.dataSource = dataSource;
+        this.processed = processed;
+        this.journal = journal;
+        this.metrics = metrics;
+        this.batchSize = batchSize;
+        this.flushMillis = flushMillis;
+        thread.setDaemon(true);
+    }
+
+    @Override
+    public void start() {
+        thread.start();
+    }
+
+    // Never blocks the audit workers: the queue is unbounded and results are small
+    @Override
+    public void submit(DomainScan scan) {
+        if (closed) {
+            throw new IllegalStateException("Result writer is already closed");
+        }
+        queue.add(scan);
+    }
+
+    // Flushes everything still queued before returning
+    @Override
+    public void close() throws InterruptedException {
+        closed = true;
+        thread.join();
+    }
+
+    private void run() {
+        List<DomainScan> batch = new ArrayList<>(batchSize);
+        long deadline = System.currentTimeMillis() + flushMillis;
+
+        while (true) {
+            DomainScan scan;
+            try {
+                scan = queue.poll(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                flush(batch);
+                return;
+            }
+            if (scan != null) {
+                batch.add(scan);
+                queue.drainTo(batch, batchSize - batch.size());
+            }
+
+            boolean draining = closed && queue.isEmpty();
+            if (batch.size() >= batchSize || System.currentTimeMillis() >= deadline || draining) {
+                flush(batch);
+                batch.clear();
+                deadline = System.currentTimeMillis() + flushMillis;
+            }
+            if (draining) {
+                return;
+            }
+        }
+    }
+
+    private void flush(List<DomainScan> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(INSERT)) {
+
+            connection.setAutoCommit(false);
+            for (DomainScan scan : batch) {
+                ps.setString(1, scan.domain);
+                ps.setString(2, scan.auditResult);
+                ps.setInt(3, scan.version);
+                ps.setString(4, scan.fingerprint.privacyHash());
+                ps.setString(5, scan.fingerprint.cookiesHash());
+                ps.setString(6, scan.fingerprint.inventoryHash());
+                ps.addBatch();
+            }
+            int[] counts = ps.executeBatch();
+
+            List<AuditRecord> records = new ArrayList<>(batch.size());
+            for (int i = 0; i < counts.length; i++) {
+                if (stored(counts[i])) {
+                    AuditRecord record = AuditRecord.parse(batch.get(i).domain, batch.get(i).version, batch.get(i).auditResult);
+                    if (record != null) {
+                        records.add(record);
+                    }
+                }
+            }
+            AuditRecord.insert(connection, records);
+            connection.commit();
+
+            int rows = 0;
+            for (int i = 0; i < counts.length; i++) {
+                if (stored(counts[i])) {
+                    processed.add(batch.get(i).domain);
+                    rows++;
+                    if (journal != null) {
+                        journal.done(batch.get(i), "stored as version " + batch.get(i).version);
+                    }
+                } else if (journal != null) {
+                    journal.failed(batch.get(i), "database insert affected no row");
+                }
+            }
+            System.out.println("DB batch insert rows affected: " + rows + " of " + batch.size() + " (" + records.size() + " normalized)");
+            if (metrics != null) {
+                metrics.observe("db_write", (System.nanoTime() - start) / 1_000_000);
+                metrics.count("db_rows_written", rows);
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Database error while writing " + batch.size() + " result(s): " + batch);
+            e.printStackTrace();
+            if (journal != null) {
+                for (DomainScan scan : batch) {
+                    journal.failed(scan, "database error: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // Rewritten batches report SUCCESS_NO_INFO instead of a row count
+    private static boolean stored(int count) {
+        return count > 0 || count == Statement.SUCCESS_NO_INFO;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Run-wide latency histograms per stage and event counters, served in the Prometheus text format on a local
+ * port and appended as one JSON line per run to a summary file.
+ */
+package org.example;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+final class ScanMetrics implements AutoCloseable {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final String PREFIX = "scanner_";
+
+    private final Instant started = Instant.now();
+    private final Map<String, Histogram> stages = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private volatile LlmMetrics llm;
+    private HttpServer server;
+
+    // Wall time of one step for one domain (a pipeline stage or a part of the capture)
+    void observe(String stage, long millis) {
+        stages.computeIfAbsent(stage, s -> new Histogram()).observe(millis);
+    }
+
+    void count(String counter, long amount) {
+        counters.computeIfAbsent(counter, c -> new LongAdder()).add(amount);
+    }
+
+    // The LLM layer keeps its own counters; they are exported together with the rest
+    void track(LlmMetrics llm) {
+        this.llm = llm;
+    }
+
+    // Serves GET /metrics on the loopback interface until the metrics are closed
+    void serve(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/metrics", exchange -> {
+            byte[] body = prometheus().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        System.out.println("Metrics available at http://127.0.0.1:" + port + "/metrics");
+    }
+
+    String prometheus() {
+        StringBuilder out = new StringBuilder();
+        out.append("# HELP ").append(PREFIX).append("stage_duration_seconds Wall time per domain and stage\n");
+        out.append("# TYPE ").append(PREFIX).append("stage_duration_seconds histogram\n");
+        for (Map.Entry<String, Histogram> stage : new TreeMap<>(stages).entrySet()) {
+            stage.getValue().writePrometheus(out, PREFIX + "stage_duration_seconds", "stage=\"" + stage.getKey() + "\"");
+        }
+
+        LlmMetrics llm = this.llm;
+        if (llm != null) {
+            out.append("# HELP ").append(PREFIX).append("llm_call_duration_seconds Latency of every LLM call\n");
+            out.append("# TYPE ").append(PREFIX).append("llm_call_duration_seconds histogram\n");
+            llm.latency().writePrometheus(out, PREFIX + "llm_call_duration_seconds", "");
+        }
+
+        for (Map.Entry<String, Long> counter : allCounters().entrySet()) {
+            String name = PREFIX + counter.getKey() + "_total";
+            out.append("# TYPE ").append(name).append(" counter\n");
+            out.append(name).append(' ').append(counter.getValue()).append('\n');
+        }
+        out.append("# TYPE ").append(PREFIX).append("uptime_seconds gauge\n");
+        out.append(PREFIX).append("uptime_seconds ").append(Duration.between(started, Instant.now()).toSeconds()).append('\n');
+        return out.toString();
+    }
+
+    // Appends one JSON line for the whole run: per-stage count, mean, p50, p95 and max, and every counter
+    void writeSummary(Path file, int domains) {
+        Instant finished = Instant.now();
+        ObjectNode run = JSON.createObjectNode();
+        run.put("started", started.toString());
+        run.put("finished", finished.toString());
+        run.put("duration_s", Duration.between(started, finished).toSeconds());
+        run.put("domains", domains);
+
+        ObjectNode stageNode = run.putObject("stages");
+        for (Map.Entry<String, Histogram> stage : new TreeMap<>(stages).entrySet()) {
+            describe(stageNode.putObject(stage.getKey()), stage.getValue());
+        }
+        LlmMetrics llm = this.llm;
+        if (llm != null) {
+            describe(stageNode.putObject("llm_call"), llm.latency());
+        }
+        ObjectNode counterNode = run.putObject("counters");
+        allCounters().forEach(counterNode::put);
+
+        try {
+            Files.writeString(file, JSON.writeValueAsString(run) + "\n", StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            System.out.println("Run metrics appended to " + file);
+        } catch (IOException e) {
+            System.err.println("Could not write the run metrics to " + file + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    private Map<String, Long> allCounters() {
+        Map<String, Long> all = new TreeMap<>();
+        counters.forEach((name, value) -> all.put(name, value.sum()));
+        LlmMetrics llm = this.llm;
+        if (llm != null) {
+            all.putAll(llm.counters());
+        }
+        return all;
+    }
+
+    private static void describe(ObjectNode node, Histogram histogram) {
+        node.put("count", histogram.count());
+        node.put("mean_ms", histogram.meanMillis());
+        node.put("p50_ms", histogram.quantileMillis(0.5));
+        node.put("p95_ms", histogram.quantileMillis(0.95));
+        node.put("max_ms", histogram.maxMillis());
+    }
+}
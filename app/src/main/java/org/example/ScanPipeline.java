@@ -0,0 +1,269 @@
+/*
+ * Wires the per-domain work into concurrent stages: policy discovery -> browser capture -> policy fetch -> text reduction
+ * -> LLM audit -> batched DB write.
+ */
+package org.example;
+
+import java.sql.SQLException;
+import java.util.List;
+import org.openqa.selenium.WebDriverException;
+
+final class ScanPipeline {
+
+    private static final long QUEUE_POLL_MILLIS = 5000;
+
+    private final ScannerConfig config;
+    private final BrowserPool pool;
+    private final LlmClient llm;
+    private final KeywordClassifier classifier;
+    private final ProcessedHosts processed;
+    private final AuditHistory history;
+    private final ResultWriter writer;
+    private final PolicyFetcher fetcher;
+    // Null when discovery is off and the browser harvests the policy URLs
+    private final PolicyDiscovery discovery;
+    private final ComplianceReport report;
+    private final WorkTracker journal;
+    private final ScanMetrics metrics;
+    // Only set in map-reduce mode
+    private final ChunkedAuditor chunkedAuditor;
+    // Only set in batch audit mode
+    private final BatchAudit batch;
+
+    ScanPipeline(ScannerConfig config, BrowserPool pool, LlmClient llm, KeywordClassifier classifier,
+                 ProcessedHosts processed, AuditHistory history, ResultWriter writer, PolicyFetcher fetcher,
+                 PolicyDiscovery discovery, ComplianceReport report, BatchAudit batch, WorkTracker journal,
+                 ScanMetrics metrics) {
+        this.config = config;
+        this.pool = pool;
+        this.llm = llm;
+        this.classifier = classifier;
+        this.processed = processed;
+        this.history = history;
+        this.writer = writer;
+        this.fetcher = fetcher;
+        this.discovery = discovery;
+        this.report = report;
+        this.batch = batch;
+        this.journal = journal;
+        this.metrics = metrics;
+        this.chunkedAuditor = config.mapReduce
+            ? new ChunkedAuditor(llm, config.chunkTokens, config.chunkOverlapTokens)
+            : null;
+    }
+
+    void run(List<String> domains) throws InterruptedException {
+        Stage<String, DomainScan> discover = build();
+        discover.start();
+        for (String domain : domains) {
+            discover.submit(domain);
+        }
+        discover.close();
+    }
+
+    // Distributed mode: keeps leasing domains until no process has work left. Only as many domains are leased
+    // as this process has slots free (its browsers plus the audits that can run next to them), so leases are
+    // not hoarded while other processes run dry. While other processes still hold leases this one waits,
+    // since their leases may expire and come back.
+    void run(ScanQueue queue) throws InterruptedException, SQLException {
+        int inFlight = pool.size() + config.auditWorkers;
+        Stage<String, DomainScan> discover = build();
+        discover.start();
+        try {
+            while (true) {
+                int free = queue.awaitSlots(inFlight, QUEUE_POLL_MILLIS);
+                if (pool.exhausted()) {
+                    System.err.println("No browsers left, " + queue.nodeId() + " stops leasing domains");
+                    break;
+                }
+                if (free == 0) {
+                    continue;
+                }
+                List<String> leased = queue.lease(free);
+                if (!leased.isEmpty()) {
+                    System.out.println("Leased " + leased.size() + " domain(s) for " + queue.nodeId() + ": " + leased);
+                    for (String domain : leased) {
+                        discover.submit(domain);
+                    }
+                } else if (queue.hasOpenWork()) {
+                    Thread.sleep(QUEUE_POLL_MILLIS);
+                } else {
+                    break;
+                }
+            }
+        } finally {
+            discover.close();
+        }
+    }
+
+    private Stage<String, DomainScan> build() {
+        Stage<String, DomainScan> discover =
+            new Stage<>("discover", config.discoveryWorkers, config.queueCapacity, this::discover);
+        discover
+            .then(new Stage<>("capture", pool.size(), config.queueCapacity, this::capture))
+            .then(new Stage<>("fetch", config.fetchWorkers, config.queueCapacity,
+                tracked("fetch", scan -> App.fetchPolicies(fetcher, scan))))
+            .then(new Stage<>("reduce", config.reduceWorkers, config.queueCapacity,
+                tracked("reduce", scan -> App.reducePolicies(scan, config.policyTokenBudget))))
+            .then(new Stage<>("audit", config.auditWorkers, config.queueCapacity, tracked("audit", this::audit)))
+            .then(writer);
+        return discover;
+    }
+
+    // First stage: policy URLs over plain HTTP, in milliseconds and without a browser. A domain whose homepage
+    // was read and that links no policy anywhere is flagged here and never opens a Chrome tab, unless the
+    // browser fallback is on. A homepage that could not be read leaves the URLs to the browser.
+    private DomainScan discover(String domain) throws Exception {
+        System.out.println("\n\n========================================");
+        System.out.println("Processing domain: " + domain);
+        System.out.println("========================================\n");
+
+        // Catches duplicates written since the run started; the list was already filtered at startup
+        if (!config.rescan && processed.contains(domain)) {
+            System.out.println("Domain FOUND in database, skipping processing: " + domain);
+            metrics.count("domains_skipped", 1);
+            journal.done(domain, "already in the database");
+            return null;
+        }
+
+        journal.started(domain);
+        DomainScan scan = App.newScan(domain);
+        if (scan == null) {
+            journal.failed(domain, "discover: invalid URL");
+            return null;
+        }
+        if (discovery == null) {
+            return scan;
+        }
+
+        long start = System.nanoTime();
+        try {
+            PolicyDiscovery.Result result = discovery.discover(scan);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            scan.stageMillis.put("discover", millis);
+            metrics.observe("discover", millis);
+            switch (result.outcome()) {
+                case FOUND -> {
+                    App.selectTargets(scan, result.candidates());
+                    return scan;
+                }
+                case UNREADABLE -> {
+                    System.out.println("Homepage of " + domain + " could not be read without the browser, harvesting the browser capture");
+                    metrics.count("discovery_unreadable", 1);
+                    return scan;
+                }
+                case NO_POLICY -> {
+                    // Flagged below
+                }
+            }
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            journal.failed(scan, "discover: " + e.getMessage());
+            throw e;
+        }
+
+        metrics.count("domains_without_policy", 1);
+        if (config.discoveryBrowserFallback) {
+            System.out.println("No policy found without the browser, harvesting the browser capture of " + domain);
+            return scan;
+        }
+        System.out.println("FLAGGED: no privacy or cookie policy linked from the homepage, sitemap or well-known paths of " + domain);
+        journal.done(scan, "flagged: no privacy or cookie policy found");
+        return null;
+    }
+
+    // Each capture worker borrows a browser for exactly one domain, so the pool is never oversubscribed.
+    // If every browser is gone, acquire throws and the domain stays in progress for the next run.
+    private DomainScan capture(DomainScan scan) throws Exception {
+        String domain = scan.domain;
+        long start = System.nanoTime();
+        BrowserSession session = pool.acquire();
+        try {
+            DomainScan captured = App.captureDomain(session, scan, classifier);
+            metrics.count("captured_responses", session.capture().responseCount());
+            metrics.count("captured_bytes", session.capture().byteCount());
+            session.finish();
+            pool.release(session);
+            if (captured == null) {
+                journal.failed(scan, "capture: no policy candidate URLs");
+                return null;
+            }
+            scan.stageMillis.put("capture", (System.nanoTime() - start) / 1_000_000);
+            // Navigation and consent were timed inside the capture
+            metrics.observe("navigate", scan.stageMillis.getOrDefault("navigate", 0L));
+            metrics.observe("consent", scan.stageMillis.getOrDefault("consent", 0L));
+            metrics.observe("capture", scan.stageMillis.get("capture"));
+            metrics.count("cookies_before_consent", scan.cookiesBefore.size());
+            metrics.count("cookies_after_consent", scan.cookiesAfter.size());
+            return scan;
+        } catch (WebDriverException e) {
+            System.err.println("Browser " + session.id() + " failed on domain " + domain + ", restarting it: " + e.getMessage());
+            // Recorded first: restarting Chrome can take a while and must not cost the domain its outcome
+            journal.failed(scan, "capture: browser failed: " + e.getMessage());
+            pool.replace(session);
+            return null;
+        } catch (Exception e) {
+            session.finish();
+            pool.release(session);
+            // An interrupted domain stays in progress and is picked up again by the next run
+            if (!(e instanceof InterruptedException)) {
+                journal.failed(scan, "capture: " + e.getMessage());
+            }
+            throw e;
+        }
+    }
+
+    // Times the stage for the journal and the metrics, and records a failure if it throws; the stage still logs the error
+    private Stage.Work<DomainScan, DomainScan> tracked(String stage, Stage.Work<DomainScan, DomainScan> work) {
+        return scan -> {
+            long start = System.nanoTime();
+            try {
+                DomainScan result = work.apply(scan);
+                long millis = (System.nanoTime() - start) / 1_000_000;
+                scan.stageMillis.put(stage, millis);
+                metrics.observe(stage, millis);
+                return result;
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                journal.failed(scan, stage + ": " + e.getMessage());
+                throw e;
+            }
+        };
+    }
+
+    // Only calls the LLM when the policies or the cookie inventory differ from the latest stored result.
+    // The LLM answers the checklist; cookies, counts and the scorecard are computed locally.
+    // In batch mode the prompts are only written out and the result is stored by a later batch ingest.
+    private DomainScan audit(DomainScan scan) throws Exception {
+        scan.fingerprint = AuditFingerprint.of(scan);
+        if (history.unchanged(scan.domain, scan.fingerprint)) {
+            System.out.println("Policies and cookies unchanged since the last audit, skipping: " + scan.domain);
+            metrics.count("domains_skipped", 1);
+            journal.done(scan, "unchanged since the last audit");
+            return null;
+        }
+        scan.version = history.nextVersion(scan.domain);
+        if (batch != null) {
+            batch.write(scan, chunkedAuditor != null && chunkedAuditor.needsChunking(scan)
+                ? chunkedAuditor.prompts(scan)
+                : List.of(App.auditPrompt(App.auditDocuments(scan), scan.cookieInventory)));
+            journal.done(scan, "written to the batch file");
+            return null;
+        }
+        if (chunkedAuditor != null && chunkedAuditor.needsChunking(scan)) {
+            chunkedAuditor.audit(scan);
+        } else {
+            App.auditPolicies(llm, scan);
+        }
+        scan.auditResult = report.complete(scan, scan.auditResult);
+        // host_results.results is NOT NULL; one empty answer would fail the writer's whole batch
+        if (scan.auditResult == null || scan.auditResult.isBlank()) {
+            System.out.println("Warning: The LLM returned no audit for " + scan.domain);
+            journal.failed(scan, "audit: the LLM returned no result");
+            return null;
+        }
+        return scan;
+    }
+}
@@ -0,0 +1,330 @@
+/*
+ * Shared work queue in the scan_queue table for distributed mode: every scanner process leases domains
+ * with SELECT ... FOR UPDATE SKIP LOCKED, keeps its leases alive with heartbeats and records the outcome.
+ * A lease that is not renewed expires, and the domain goes to the next process that asks for work.
+ */
+package org.example;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+
+final class ScanQueue implements WorkTracker, AutoCloseable {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final int ENQUEUE_BATCH = 500;
+
+    // Expired leases count as free work, so a crashed process loses its domains once its leases run out.
+    // Both bounds take maxAttempts: a domain that crashes every scanner that leases it must run out too.
+    private static final String CLAIMABLE = "state = 'pending' OR (state = 'leased' AND lease_expires < NOW(3) AND attempts < ?) "
+        + "OR (state = 'failed' AND attempts < ?)";
+
+    private final DataSource dataSource;
+    private final String nodeId;
+    private final int leaseSeconds;
+    private final int maxAttempts;
+    private final boolean rescan;
+    private final ScanMetrics metrics;
+    // Domains this process leased and has not finished; guarded by itself, notified when one finishes
+    private final Set<String> held = new HashSet<>();
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "scan-queue-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    ScanQueue(DataSource dataSource, String nodeId, int leaseSeconds, int maxAttempts, boolean rescan, ScanMetrics metrics) {
+        this.dataSource = dataSource;
+        this.nodeId = nodeId;
+        this.leaseSeconds = leaseSeconds;
+        this.maxAttempts = maxAttempts;
+        this.rescan = rescan;
+        this.metrics = metrics;
+        // Three renewals per lease period, so one slow database round trip does not cost the lease
+        long period = Math.max(1, leaseSeconds * 1000L / 3);
+        heartbeat.scheduleAtFixedRate(this::renewLeases, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    String nodeId() {
+        return nodeId;
+    }
+
+    // Every process adds the whole list; domains that are already queued keep their state
+    int enqueue(List<String> domains) throws SQLException {
+        int added = 0;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement("INSERT IGNORE INTO scan_queue (domain) VALUES (?)")) {
+            List<String> unique = new ArrayList<>(new LinkedHashSet<>(domains));
+            for (int from = 0; from < unique.size(); from += ENQUEUE_BATCH) {
+                for (String domain : unique.subList(from, Math.min(unique.size(), from + ENQUEUE_BATCH))) {
+                    ps.setString(1, domain);
+                    ps.addBatch();
+                }
+                for (int count : ps.executeBatch()) {
+                    added += Math.max(0, count);
+                }
+            }
+        }
+        return added;
+    }
+
+    // Leases up to `limit` domains in queue order. Rows another process is leasing right now are skipped
+    // instead of waited for, so concurrent callers never block each other or get the same domain.
+    List<String> lease(int limit) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                failExhausted(connection);
+                Map<Long, String> claimed = new LinkedHashMap<>();
+                try (PreparedStatement ps = connection.prepareStatement(
+                        "SELECT id, domain FROM scan_queue WHERE " + CLAIMABLE + " ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED")) {
+                    ps.setInt(1, maxAttempts);
+                    ps.setInt(2, maxAttempts);
+                    ps.setInt(3, limit);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            claimed.put(rs.getLong(1), rs.getString(2));
+                        }
+                    }
+                }
+                if (!rescan) {
+                    skipStored(connection, claimed);
+                }
+                if (!claimed.isEmpty()) {
+                    try (PreparedStatement ps = connection.prepareStatement(
+                            "UPDATE scan_queue SET state = 'leased', lease_owner = ?, lease_expires = NOW(3) + INTERVAL ? SECOND, "
+                                + "attempts = attempts + 1, note = NULL WHERE id = ?")) {
+                        for (Long id : claimed.keySet()) {
+                            ps.setString(1, nodeId);
+                            ps.setInt(2, leaseSeconds);
+                            ps.setLong(3, id);
+                            ps.addBatch();
+                        }
+                        ps.executeBatch();
+                    }
+                }
+                connection.commit();
+                synchronized (held) {
+                    held.addAll(claimed.values());
+                }
+                return new ArrayList<>(claimed.values());
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    // Waits until fewer than `limit` leases of this process are unfinished, or at most maxWaitMillis;
+    // returns how many more domains may be leased now (0 after a timeout with every slot still taken)
+    int awaitSlots(int limit, long maxWaitMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + maxWaitMillis;
+        synchronized (held) {
+            long remaining = maxWaitMillis;
+            while (held.size() >= limit && remaining > 0) {
+                held.wait(remaining);
+                remaining = deadline - System.currentTimeMillis();
+            }
+            return Math.max(0, limit - held.size());
+        }
+    }
+
+    // Whether any domain can still be leased now or later: pending, retryable or leased by another process
+    // whose lease is still alive. This process's own leases are in its pipeline and do not count.
+    boolean hasOpenWork() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement("SELECT 1 FROM scan_queue WHERE " + CLAIMABLE
+                 + " OR (state = 'leased' AND lease_owner <> ? AND lease_expires >= NOW(3)) LIMIT 1")) {
+            ps.setInt(1, maxAttempts);
+            ps.setInt(2, maxAttempts);
+            ps.setString(3, nodeId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    // The attempt was counted by the lease; this only makes sure the lease still belongs to this process
+    @Override
+    public void started(String domain) throws IOException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(
+                 "UPDATE scan_queue SET lease_expires = NOW(3) + INTERVAL ? SECOND "
+                     + "WHERE domain = ? AND state = 'leased' AND lease_owner = ?")) {
+            ps.setInt(1, leaseSeconds);
+            ps.setString(2, domain);
+            ps.setString(3, nodeId);
+            if (ps.executeUpdate() == 0) {
+                release(domain);
+                throw new IOException("Lease on " + domain + " was lost to another scanner");
+            }
+        } catch (SQLException e) {
+            throw new IOException("Could not renew the lease on " + domain + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void done(DomainScan scan, String note) {
+        finish(scan.domain, "done", note, scan.stageMillis);
+    }
+
+    @Override
+    public void failed(DomainScan scan, String reason) {
+        finish(scan.domain, "failed", reason, scan.stageMillis);
+    }
+
+    @Override
+    public void failed(String domain, String reason) {
+        finish(domain, "failed", reason, Map.of());
+    }
+
+    @Override
+    public void done(String domain, String note) {
+        finish(domain, "done", note, Map.of());
+    }
+
+    String summary() throws SQLException {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement("SELECT state, COUNT(*) FROM scan_queue GROUP BY state");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                counts.put(rs.getString(1), rs.getInt(2));
+            }
+        }
+        return counts.getOrDefault("done", 0) + " done, " + counts.getOrDefault("failed", 0) + " failed, "
+            + counts.getOrDefault("leased", 0) + " leased, " + counts.getOrDefault("pending", 0) + " pending";
+    }
+
+    // Hands unfinished leases back right away instead of letting them expire; the attempt does not count
+    @Override
+    public void close() throws SQLException {
+        heartbeat.shutdownNow();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(
+                 "UPDATE scan_queue SET state = 'pending', lease_owner = NULL, lease_expires = NULL, "
+                     + "attempts = GREATEST(attempts - 1, 0) WHERE state = 'leased' AND lease_owner = ?")) {
+            ps.setString(1, nodeId);
+            int released = ps.executeUpdate();
+            if (released > 0) {
+                System.out.println("Released " + released + " unfinished lease(s) of " + nodeId);
+            }
+        }
+    }
+
+    // Only the lease owner records an outcome; a process whose lease expired must not overwrite the new owner
+    private void finish(String domain, String state, String note, Map<String, Long> stageMillis) {
+        release(domain);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(
+                 "UPDATE scan_queue SET state = ?, note = ?, stage_ms = ?, lease_owner = NULL, lease_expires = NULL "
+                     + "WHERE domain = ? AND state = 'leased' AND lease_owner = ?")) {
+            ps.setString(1, state);
+            ps.setString(2, note == null ? null : truncate(note, 1024));
+            ps.setString(3, stageMillis.isEmpty() ? null : JSON.writeValueAsString(new LinkedHashMap<>(stageMillis)));
+            ps.setString(4, domain);
+            ps.setString(5, nodeId);
+            if (ps.executeUpdate() == 0) {
+                System.err.println("Lease on " + domain + " expired before it was marked " + state + "; another scanner owns it now");
+            }
+            metrics.count("domains_" + state, 1);
+        } catch (SQLException | JsonProcessingException e) {
+            // The result itself is safe; at worst the lease expires and the domain is processed once more
+            System.err.println("Could not update the scan queue for " + domain + ": " + e.getMessage());
+        }
+    }
+
+    private void release(String domain) {
+        synchronized (held) {
+            held.remove(domain);
+            held.notifyAll();
+        }
+    }
+
+    private void renewLeases() {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(
+                 "UPDATE scan_queue SET lease_expires = NOW(3) + INTERVAL ? SECOND WHERE state = 'leased' AND lease_owner = ?")) {
+            ps.setInt(1, leaseSeconds);
+            ps.setString(2, nodeId);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("Could not renew the scan queue leases of " + nodeId + ": " + e.getMessage());
+        }
+    }
+
+    // An expired lease without attempts left means every scanner that took the domain died on it; it is
+    // closed as failed, so it is neither leased again nor keeps the other scanners waiting
+    private void failExhausted(Connection connection) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "UPDATE scan_queue SET state = 'failed', note = 'lease expired on the last attempt; the scanner probably crashed on it', "
+                    + "lease_owner = NULL, lease_expires = NULL WHERE state = 'leased' AND lease_expires < NOW(3) AND attempts >= ?")) {
+            ps.setInt(1, maxAttempts);
+            int failed = ps.executeUpdate();
+            if (failed > 0) {
+                System.out.println("Gave up on " + failed + " domain(s) whose last lease expired");
+                metrics.count("domains_failed", failed);
+            }
+        }
+    }
+
+    // Another process may have stored a domain since it was queued (e.g. it crashed after the insert but
+    // before marking it done); those are closed instead of being audited twice
+    private static void skipStored(Connection connection, Map<Long, String> claimed) throws SQLException {
+        if (claimed.isEmpty()) {
+            return;
+        }
+        Set<String> stored = new LinkedHashSet<>();
+        String placeholders = String.join(",", Collections.nCopies(claimed.size(), "?"));
+        try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT DISTINCT hostname FROM host_results WHERE hostname IN (" + placeholders + ")")) {
+            int i = 1;
+            for (String domain : claimed.values()) {
+                ps.setString(i++, domain);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    stored.add(rs.getString(1));
+                }
+            }
+        }
+        if (stored.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement ps = connection.prepareStatement(
+                "UPDATE scan_queue SET state = 'done', note = 'already in the database', lease_owner = NULL, lease_expires = NULL WHERE id = ?")) {
+            Iterator<Map.Entry<Long, String>> entries = claimed.entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<Long, String> entry = entries.next();
+                if (stored.contains(entry.getValue())) {
+                    System.out.println("Domain FOUND in database, skipping processing: " + entry.getValue());
+                    ps.setLong(1, entry.getKey());
+                    ps.addBatch();
+                    entries.remove();
+                }
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private static String truncate(String text, int max) {
+        return text.length() <= max ? text : text.substring(0, max);
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * Tunable scanner settings, read from environment variables.
+ */
+package org.example;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+final class ScannerConfig {
+
+    // Number of headless Chrome instances scanning in parallel
+    final int browsers;
+
+    // Workers of the later pipeline stages and the size of the queue in front of each stage
+    final int fetchWorkers;
+    final int reduceWorkers;
+    final int auditWorkers;
+    final int queueCapacity;
+
+    // Database connection pool and result writer flush policy
+    final int databasePoolSize;
+    final int writeBatchSize;
+    final long writeFlushMillis;
+
+    // Capture buffer budgets: per response, per domain, and the size above which bodies spill to disk
+    final int captureResponseBytes;
+    final long captureDomainBytes;
+    final int captureSpillBytes;
+
+    // Page readiness: quiet window, hard cap per page, and requests allowed to stay open (long polling)
+    final int idleQuietMillis;
+    final int idleMaxMillis;
+    final int idleMaxInFlight;
+
+    // After the consent click: quiet window without requests or cookie changes, and its hard cap
+    final int consentQuietMillis;
+    final int consentMaxMillis;
+
+    // Resource blocking mode: resource types and extra URL patterns the browser must not download
+    final boolean blockResources;
+    final List<String> blockTypes;
+    final List<String> blockPatterns;
+
+    // Scan every domain in a fresh DevTools browser context instead of clearing state in place
+    final boolean browserContexts;
+
+    // Browserless policy URL discovery ahead of the browser stage: on/off, workers, per-request timeout and
+    // whether domains it finds no policy for still get the browser's URL harvesting
+    final boolean discovery;
+    final int discoveryWorkers;
+    final int discoveryTimeoutMillis;
+    final boolean discoveryBrowserFallback;
+
+    // Policy fetcher: body size cap, per-request timeout and validator cache directory ("" disables the cache)
+    final int fetchMaxBytes;
+    final int fetchTimeoutMillis;
+    final String policyCacheDir;
+
+    // Re-scan domains that already have results and only re-audit those whose content changed
+    final boolean rescan;
+
+    // Estimated tokens of policy text allowed into one audit prompt
+    final int policyTokenBudget;
+
+    // Map-reduce audits: policies above the chunk size are audited in overlapping chunks in parallel
+    final boolean mapReduce;
+    final int chunkTokens;
+    final int chunkOverlapTokens;
+
+    // LLM access: backend ("gemini" or "stub"), model, calls in flight, rate limits, timeout and retries
+    final String llmBackend;
+    final String llmModel;
+    final int llmConcurrency;
+    final int llmRequestsPerMinute;
+    final int llmTokensPerMinute;
+    final int llmTimeoutMillis;
+    final int llmMaxRetries;
+    final int llmStubLatencyMillis;
+    final int llmStubErrorPercent;
+
+    // Work journal that lets an interrupted run resume, and how often a failed domain is tried
+    final String journalFile;
+    final int maxAttempts;
+
+    // Metrics: local Prometheus port (0 disables it) and the JSON-lines file that gets one summary per run
+    final int metricsPort;
+    final String metricsFile;
+
+    // Distributed mode: domains are leased from the shared scan_queue table instead of the local journal
+    final boolean distributed;
+    final String nodeId;
+    final int leaseSeconds;
+
+    // Batch audit mode: when set, prompts are written to this JSONL file instead of being sent to the LLM
+    final String batchFile;
+
+    private ScannerConfig(int browsers, int fetchWorkers, int reduceWorkers, int auditWorkers, int queueCapacity,
+                          int databasePoolSize, int writeBatchSize, long writeFlushMillis,
+                          int captureResponseBytes, long captureDomainBytes, int captureSpillBytes,
+                          int idleQuietMillis, int idleMaxMillis, int idleMaxInFlight,
+                          int consentQuietMillis, int consentMaxMillis,
+                          boolean blockResources, List<String> blockTypes, List<String> blockPatterns,
+                          boolean browserContexts,
+                          boolean discovery, int discoveryWorkers, int discoveryTimeoutMillis, boolean discoveryBrowserFallback,
+                          int fetchMaxBytes, int fetchTimeoutMillis, String policyCacheDir,
+                          boolean rescan, int policyTokenBudget,
+                          boolean mapReduce, int chunkTokens, int chunkOverlapTokens,
+                          String llmBackend, String llmModel, int llmConcurrency, int llmRequestsPerMinute,
+                          int llmTokensPerMinute, int llmTimeoutMillis, int llmMaxRetries,
+                          int llmStubLatencyMillis, int llmStubErrorPercent, String journalFile, int maxAttempts,
+                          int metricsPort, String metricsFile, boolean distributed, String nodeId, int leaseSeconds,
+                          String batchFile) {
+        this.browsers = browsers;
+        this.fetchWorkers = fetchWorkers;
+        this.reduceWorkers = reduceWorkers;
+        this.auditWorkers = auditWorkers;
+        this.queueCapacity = queueCapacity;
+        this.databasePoolSize = databasePoolSize;
+        this.writeBatchSize = writeBatchSize;
+        this.writeFlushMillis = writeFlushMillis;
+        this.captureResponseBytes = captureResponseBytes;
+        this.captureDomainBytes = captureDomainBytes;
+        this.captureSpillBytes = captureSpillBytes;
+        this.idleQuietMillis = idleQuietMillis;
+        this.idleMaxMillis = idleMaxMillis;
+        this.idleMaxInFlight = idleMaxInFlight;
+        this.consentQuietMillis = consentQuietMillis;
+        this.consentMaxMillis = consentMaxMillis;
+        this.blockResources = blockResources;
+        this.blockTypes = blockTypes;
+        this.blockPatterns = blockPatterns;
+        this.browserContexts = browserContexts;
+        this.discovery = discovery;
+        this.discoveryWorkers = discoveryWorkers;
+        this.discoveryTimeoutMillis = discoveryTimeoutMillis;
+        this.discoveryBrowserFallback = discoveryBrowserFallback;
+        this.fetchMaxBytes = fetchMaxBytes;
+        this.fetchTimeoutMillis = fetchTimeoutMillis;
+        this.policyCacheDir = policyCacheDir;
+        this.rescan = rescan;
+        this.policyTokenBudget = policyTokenBudget;
+        this.mapReduce = mapReduce;
+        this.chunkTokens = chunkTokens;
+        this.chunkOverlapTokens = chunkOverlapTokens;
+        this.llmBackend = llmBackend;
+        this.llmModel = llmModel;
+        this.llmConcurrency = llmConcurrency;
+        this.llmRequestsPerMinute = llmRequestsPerMinute;
+        this.llmTokensPerMinute = llmTokensPerMinute;
+        this.llmTimeoutMillis = llmTimeoutMillis;
+        this.llmMaxRetries = llmMaxRetries;
+        this.llmStubLatencyMillis = llmStubLatencyMillis;
+        this.llmStubErrorPercent = llmStubErrorPercent;
+        this.journalFile = journalFile;
+        this.maxAttempts = maxAttempts;
+        this.metricsPort = metricsPort;
+        this.metricsFile = metricsFile;
+        this.distributed = distributed;
+        this.nodeId = nodeId;
+        this.leaseSeconds = leaseSeconds;
+        this.batchFile = batchFile;
+    }
+
+    static ScannerConfig fromEnvironment() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        return new ScannerConfig(
+            intEnv("SCANNER_BROWSERS", Math.max(1, cores / 2)),
+            intEnv("SCANNER_FETCH_WORKERS", 4),
+            intEnv("SCANNER_REDUCE_WORKERS", 2),
+            intEnv("SCANNER_AUDIT_WORKERS", 4),
+            intEnv("SCANNER_QUEUE_CAPACITY", 8),
+            intEnv("SCANNER_DB_POOL_SIZE", 4),
+            intEnv("SCANNER_WRITE_BATCH_SIZE", 20),
+            intEnv("SCANNER_WRITE_FLUSH_MS", 2000),
+            intEnv("SCANNER_CAPTURE_RESPONSE_KB", 2048) * 1024,
+            intEnv("SCANNER_CAPTURE_DOMAIN_MB", 64) * 1024L * 1024L,
+            intEnv("SCANNER_CAPTURE_SPILL_KB", 256) * 1024,
+            intEnv("SCANNER_IDLE_QUIET_MS", 1500),
+            intEnv("SCANNER_IDLE_MAX_MS", 15000),
+            intEnv("SCANNER_IDLE_MAX_INFLIGHT", 2),
+            intEnv("SCANNER_CONSENT_QUIET_MS", 500),
+            intEnv("SCANNER_CONSENT_MAX_MS", 5000),
+            boolEnv("SCANNER_BLOCK_RESOURCES", false),
+            listEnv("SCANNER_BLOCK_TYPES", "image,font,media"),
+            listEnv("SCANNER_BLOCK_PATTERNS", ""),
+            boolEnv("SCANNER_BROWSER_CONTEXTS", true),
+            boolEnv("SCANNER_DISCOVERY", true),
+            intEnv("SCANNER_DISCOVERY_WORKERS", 8),
+            intEnv("SCANNER_DISCOVERY_TIMEOUT_MS", 5000),
+            boolEnv("SCANNER_DISCOVERY_BROWSER_FALLBACK", false),
+            intEnv("SCANNER_FETCH_MAX_KB", 4096) * 1024,
+            intEnv("SCANNER_FETCH_TIMEOUT_MS", 20000),
+            stringEnv("SCANNER_POLICY_CACHE_DIR", "policy-cache"),
+            boolEnv("SCANNER_RESCAN", false),
+            intEnv("SCANNER_POLICY_TOKEN_BUDGET", 40000),
+            boolEnv("SCANNER_MAP_REDUCE", false),
+            intEnv("SCANNER_CHUNK_TOKENS", 12000),
+            intEnv("SCANNER_CHUNK_OVERLAP_TOKENS", 400),
+            stringEnv("SCANNER_LLM", "gemini").toLowerCase(Locale.ROOT),
+            stringEnv("SCANNER_LLM_MODEL", "gemini-2.5-flash"),
+            intEnv("SCANNER_LLM_CONCURRENCY", 4),
+            intEnv("SCANNER_LLM_RPM", 60),
+            intEnv("SCANNER_LLM_TPM", 1_000_000),
+            intEnv("SCANNER_LLM_TIMEOUT_MS", 120000),
+            intEnv("SCANNER_LLM_MAX_RETRIES", 4),
+            intEnv("SCANNER_LLM_STUB_LATENCY_MS", 3000),
+            percentEnv("SCANNER_LLM_STUB_ERROR_PERCENT", 0),
+            stringEnv("SCANNER_JOURNAL_FILE", "scan-journal.jsonl"),
+            intEnv("SCANNER_MAX_ATTEMPTS", 3),
+            intEnv("SCANNER_METRICS_PORT", 0),
+            stringEnv("SCANNER_METRICS_FILE", "scan-metrics.jsonl"),
+            boolEnv("SCANNER_DISTRIBUTED", false),
+            stringEnv("SCANNER_NODE_ID", defaultNodeId()),
+            intEnv("SCANNER_LEASE_SECONDS", 300),
+            stringEnv("SCANNER_BATCH_FILE", "")
+        );
+    }
+
+    // Host name and process id, unique enough for several scanners on one machine
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "scanner";
+        }
+        return host + "-" + ProcessHandle.current().pid();
+    }
+
+    static boolean boolEnv(String name, boolean defaultValue) {
+        String value = System.getenv(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        return value.trim().equalsIgnoreCase("true") || value.trim().equals("1");
+    }
+
+    static String stringEnv(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null ? defaultValue : value.trim();
+    }
+
+    // Comma separated values, blanks removed
+    static List<String> listEnv(String name, String defaultValue) {
+        String value = System.getenv(name);
+        if (value == null || value.isBlank()) {
+            value = defaultValue;
+        }
+        return Arrays.stream(value.split(","))
+            .map(String::trim)
+            .filter(item -> !item.isEmpty())
+            .toList();
+    }
+
+    // 0-100, where 0 is allowed (intEnv only accepts positive values)
+    static int percentEnv(String name, int defaultValue) {
+        String value = System.getenv(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Math.max(0, Math.min(100, Integer.parseInt(value.trim())));
+        } catch (NumberFormatException e) {
+            System.out.println("Ignoring invalid value for " + name + ": " + value);
+            return defaultValue;
+        }
+    }
+
+    static int intEnv(String name, int defaultValue) {
+        String value = System.getenv(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            return parsed > 0 ? parsed : defaultValue;
+        } catch (NumberFormatException e) {
+            System.out.println("Ignoring invalid value for " + name + ": " + value);
+            return defaultValue;
+        }
+    }
+}
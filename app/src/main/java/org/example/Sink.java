@@ -0,0 +1,14 @@
+/*
+ * Anything that can sit downstream of a pipeline stage: another stage or a terminal consumer.
+ */
+package org.example;
+
+interface Sink<T> {
+
+    void start();
+
+    void submit(T item) throws InterruptedException;
+
+    // Processes everything already submitted, then releases the sink's threads
+    void close() throws InterruptedException;
+}
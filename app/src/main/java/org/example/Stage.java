@@ -0,0 +1,103 @@
+/*
+ * One step of the scan pipeline: a bounded input queue drained by a fixed number of worker threads.
+ */
+package org.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+final class Stage<I, O> implements Sink<I> {
+
+    interface Work<I, O> {
+        // Returning null drops the item (e.g. a skipped domain) instead of passing it downstream
+        O apply(I item) throws Exception;
+    }
+
+    private final String name;
+    private final BlockingQueue<I> queue;
+    private final Work<I, O> work;
+    private final List<Thread> workers = new ArrayList<>();
+    private Sink<O> next;
+    private volatile boolean closed = false;
+
+    Stage(String name, int workerCount, int capacity, Work<I, O> work) {
+        this.name = name;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.work = work;
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::drain, name + "-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+        }
+    }
+
+    <S extends Sink<O>> S then(S next) {
+        this.next = next;
+        return next;
+    }
+
+    @Override
+    public void start() {
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        if (next != null) {
+            next.start();
+        }
+    }
+
+    // Blocks while the queue is full, so a slow stage pushes back on the stages feeding it
+    @Override
+    public void submit(I item) throws InterruptedException {
+        if (closed) {
+            throw new IllegalStateException("Stage " + name + " is already closed");
+        }
+        queue.put(item);
+    }
+
+    // Lets the workers finish everything already queued, then closes the following stages in order
+    @Override
+    public void close() throws InterruptedException {
+        closed = true;
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (next != null) {
+            next.close();
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            I item;
+            try {
+                item = queue.poll(200, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (item == null) {
+                if (closed) {
+                    return;
+                }
+                continue;
+            }
+
+            try {
+                O result = work.apply(item);
+                if (result != null && next != null) {
+                    next.submit(result);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                System.err.println("Stage " + name + " failed on " + item + ": " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+}
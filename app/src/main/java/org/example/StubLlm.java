@@ -0,0 +1,50 @@
+/*
+ * Offline LLM stand-in that answers every checklist with fixed verdicts after a simulated latency,
+ * for load-testing the pipeline without API quota.
+ */
+package org.example;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+final class StubLlm implements LlmClient {
+
+    private static final int QUESTIONS = 17;
+
+    private final int latencyMillis;
+    private final int errorPercent;
+
+    StubLlm(int latencyMillis, int errorPercent) {
+        this.latencyMillis = latencyMillis;
+        this.errorPercent = errorPercent;
+        System.out.println("Using the local LLM stub (" + latencyMillis + " ms per call, " + errorPercent + "% throttled)");
+    }
+
+    @Override
+    public Response generate(String prompt) throws InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        // Latency varies by +-50% like real responses do
+        Thread.sleep(latencyMillis / 2 + random.nextInt(latencyMillis + 1));
+        if (random.nextInt(100) < errorPercent) {
+            throw new LlmException("Stub returned 429: simulated rate limit", true, null);
+        }
+
+        StringBuilder json = new StringBuilder("{\"audit_checklist\": [");
+        for (int id = 1; id <= QUESTIONS; id++) {
+            String verdict = switch (id % 3) {
+                case 0 -> "Yes";
+                case 1 -> "Partial";
+                default -> "No";
+            };
+            if (id > 1) {
+                json.append(',');
+            }
+            json.append("{\"id\": ").append(id)
+                .append(", \"category\": \"").append(id <= 6 ? "PART A: GENERAL GOVERNANCE & DATA SUBJECT RIGHTS" : "PART B: COOKIES & TRACKING TRANSPARENCY")
+                .append("\", \"question\": \"Stub question ").append(id)
+                .append("\", \"verdict\": \"").append(verdict)
+                .append("\", \"evidence\": \"Stub evidence\", \"notes\": \"Generated offline\"}");
+        }
+        json.append("]}");
+        return new Response(json.toString(), PolicyText.estimateTokens(prompt), PolicyText.estimateTokens(json.toString()));
+    }
+}
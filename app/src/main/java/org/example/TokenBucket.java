@@ -0,0 +1,48 @@
+/*
+ * Blocking token bucket refilled continuously at a fixed rate per minute.
+ */
+package org.example;
+
+final class TokenBucket {
+
+    private final double capacity;
+    private final double refillPerNano;
+    private double available;
+    private long lastRefill;
+
+    TokenBucket(int perMinute) {
+        this.capacity = perMinute;
+        this.refillPerNano = perMinute / 60_000_000_000.0;
+        this.available = perMinute;
+        this.lastRefill = System.nanoTime();
+    }
+
+    // Blocks until the tokens are available; requests above the capacity only wait for a full bucket
+    void acquire(int tokens) throws InterruptedException {
+        double wanted = Math.min(tokens, capacity);
+        while (true) {
+            long waitMillis;
+            synchronized (this) {
+                refill();
+                if (available >= wanted) {
+                    available -= wanted;
+                    return;
+                }
+                waitMillis = (long) Math.ceil((wanted - available) / refillPerNano / 1_000_000.0);
+            }
+            Thread.sleep(Math.max(1, waitMillis));
+        }
+    }
+
+    // Corrects an estimate once the real usage is known; the balance may go negative (debt)
+    synchronized void adjust(int tokens) {
+        refill();
+        available = Math.min(capacity, available - tokens);
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        available = Math.min(capacity, available + (now - lastRefill) * refillPerNano);
+        lastRefill = now;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Incremental https:// URL harvester for captured response bodies.
+ */
+package org.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+final class UrlExtractor {
+
+    private static final byte[] PREFIX = "https://".getBytes(StandardCharsets.US_ASCII);
+
+    // Longer candidates are data blobs rather than links and are dropped
+    private static final int MAX_URL_BYTES = 2048;
+
+    private final byte[] buffer = new byte[8192];
+    private final byte[] url = new byte[MAX_URL_BYTES];
+    private final Set<String> urls = new LinkedHashSet<>();
+
+    // Prefix bytes matched so far, or PREFIX.length while inside a URL
+    private int matched = 0;
+    private int length = 0;
+    private boolean overflow = false;
+
+    // Scans one response body chunk by chunk; nothing but the matched URLs is kept
+    void scan(InputStream in) throws IOException {
+        try (in) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                for (int i = 0; i < read; i++) {
+                    accept(buffer[i]);
+                }
+            }
+        }
+        // A body ending inside a URL still yields it, but it never continues into the next body
+        emit();
+    }
+
+    Set<String> urls() {
+        return urls;
+    }
+
+    void clear() {
+        urls.clear();
+        matched = 0;
+        length = 0;
+        overflow = false;
+    }
+
+    private void accept(byte b) {
+        if (matched < PREFIX.length) {
+            if (b == PREFIX[matched]) {
+                url[matched++] = b;
+                if (matched == PREFIX.length) {
+                    length = matched;
+                    overflow = false;
+                }
+            } else {
+                // 'h' only appears at the start of the prefix, so a mismatch can only restart there
+                matched = b == PREFIX[0] ? 1 : 0;
+                if (matched == 1) {
+                    url[0] = b;
+                }
+            }
+            return;
+        }
+
+        // Same cut points as the old "https://[^\s]+" match split on quotes and backslashes
+        if (isWhitespace(b) || b == '"' || b == '\'' || b == '\\') {
+            emit();
+            return;
+        }
+
+        if (length < MAX_URL_BYTES) {
+            url[length++] = b;
+        } else {
+            overflow = true;
+        }
+    }
+
+    private void emit() {
+        if (matched == PREFIX.length && length > PREFIX.length && !overflow) {
+            urls.add(new String(url, 0, length, StandardCharsets.UTF_8));
+        }
+        matched = 0;
+        length = 0;
+        overflow = false;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == 0x0B || b == '\f' || b == '\r';
+    }
+}
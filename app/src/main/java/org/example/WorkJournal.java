@@ -0,0 +1,210 @@
+/*
+ * Append-only journal of the per-domain work state (pending, in progress, failed, done), so an interrupted
+ * run resumes where it stopped and only retries what failed.
+ */
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+final class WorkJournal implements WorkTracker, AutoCloseable {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    enum State { PENDING, IN_PROGRESS, FAILED, DONE }
+
+    private static final class Status {
+        State state = State.PENDING;
+        int attempts = 0;
+        String note = "";
+    }
+
+    private final Path file;
+    private final ScanMetrics metrics;
+    private final FileChannel channel;
+    private final Map<String, Status> statuses = new HashMap<>();
+    private final boolean resumed;
+
+    // Replays the journal; every line is the full state of one domain, so the last line per domain wins
+    WorkJournal(Path file, ScanMetrics metrics) throws IOException {
+        this.file = file;
+        this.metrics = metrics;
+        if (Files.exists(file)) {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    replay(line);
+                }
+            }
+        }
+        this.resumed = !statuses.isEmpty();
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        // A crash can leave a half-written last line; start the next entry on a line of its own
+        if (channel.size() > 0 && !endsWithNewline(file)) {
+            channel.write(ByteBuffer.wrap(new byte[] {'\n'}));
+        }
+    }
+
+    // Registers new domains and returns the ones this run has to process, in input order: pending ones,
+    // ones a crash left in progress and failed ones with attempts left. Done domains are never repeated.
+    synchronized List<String> plan(List<String> domains, int maxAttempts) throws IOException {
+        List<String> work = new ArrayList<>();
+        int done = 0;
+        int exhausted = 0;
+        int resumed = 0;
+        for (String domain : domains) {
+            Status status = statuses.get(domain);
+            if (status == null) {
+                status = new Status();
+                statuses.put(domain, status);
+                append(domain, status, null);
+            }
+            switch (status.state) {
+                case DONE -> done++;
+                case IN_PROGRESS, FAILED -> {
+                    if (status.attempts >= maxAttempts) {
+                        exhausted++;
+                        System.out.println("Giving up on " + domain + " after " + status.attempts + " attempt(s): " + status.note);
+                    } else {
+                        resumed++;
+                        work.add(domain);
+                    }
+                }
+                case PENDING -> work.add(domain);
+            }
+        }
+        System.out.println("Work journal " + file + ": " + work.size() + " domain(s) to process (" + resumed + " retried), "
+            + done + " already done, " + exhausted + " out of attempts");
+        return work;
+    }
+
+    @Override
+    public synchronized void started(String domain) throws IOException {
+        Status status = statuses.computeIfAbsent(domain, d -> new Status());
+        status.state = State.IN_PROGRESS;
+        status.attempts++;
+        status.note = "";
+        append(domain, status, null);
+    }
+
+    @Override
+    public synchronized void done(DomainScan scan, String note) {
+        finish(scan.domain, State.DONE, note, scan.stageMillis);
+    }
+
+    @Override
+    public synchronized void failed(DomainScan scan, String reason) {
+        finish(scan.domain, State.FAILED, reason, scan.stageMillis);
+    }
+
+    @Override
+    public synchronized void failed(String domain, String reason) {
+        finish(domain, State.FAILED, reason, Map.of());
+    }
+
+    @Override
+    public synchronized void done(String domain, String note) {
+        finish(domain, State.DONE, note, Map.of());
+    }
+
+    // Whether an earlier run left entries, i.e. this run continues it
+    boolean resumed() {
+        return resumed;
+    }
+
+    synchronized String summary() {
+        Map<State, Integer> counts = new EnumMap<>(State.class);
+        for (Status status : statuses.values()) {
+            counts.merge(status.state, 1, Integer::sum);
+        }
+        return counts.getOrDefault(State.DONE, 0) + " done, " + counts.getOrDefault(State.FAILED, 0) + " failed, "
+            + counts.getOrDefault(State.IN_PROGRESS, 0) + " in progress, " + counts.getOrDefault(State.PENDING, 0) + " pending";
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private void finish(String domain, State state, String note, Map<String, Long> stageMillis) {
+        Status status = statuses.computeIfAbsent(domain, d -> new Status());
+        status.state = state;
+        status.note = note == null ? "" : note;
+        metrics.count("domains_" + state.name().toLowerCase(Locale.ROOT), 1);
+        try {
+            append(domain, status, stageMillis);
+        } catch (IOException e) {
+            // The result itself is safe; at worst the domain is processed once more after a restart
+            System.err.println("Could not write the work journal for " + domain + ": " + e.getMessage());
+        }
+    }
+
+    // Forced to disk before returning, so a state the journal reports is never lost in a crash
+    private void append(String domain, Status status, Map<String, Long> stageMillis) throws IOException {
+        ObjectNode line = JSON.createObjectNode();
+        line.put("domain", domain);
+        line.put("state", status.state.name());
+        line.put("attempts", status.attempts);
+        if (!status.note.isEmpty()) {
+            line.put("note", status.note);
+        }
+        if (stageMillis != null && !stageMillis.isEmpty()) {
+            ObjectNode stages = line.putObject("stage_ms");
+            new LinkedHashMap<>(stageMillis).forEach(stages::put);
+        }
+        line.put("at", Instant.now().toString());
+        channel.write(ByteBuffer.wrap((JSON.writeValueAsString(line) + "\n").getBytes(StandardCharsets.UTF_8)));
+        channel.force(false);
+    }
+
+    private void replay(String line) {
+        if (line.isBlank()) {
+            return;
+        }
+        JsonNode entry;
+        try {
+            entry = JSON.readTree(line);
+        } catch (IOException e) {
+            // Torn write from a crash; the domain keeps its previous state
+            return;
+        }
+        String domain = entry.path("domain").asText("");
+        if (domain.isEmpty()) {
+            return;
+        }
+        Status status = new Status();
+        try {
+            status.state = State.valueOf(entry.path("state").asText());
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        status.attempts = entry.path("attempts").asInt();
+        status.note = entry.path("note").asText("");
+        statuses.put(domain, status);
+    }
+
+    static boolean endsWithNewline(Path file) throws IOException {
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer last = ByteBuffer.allocate(1);
+            in.read(last, in.size() - 1);
+            return last.get(0) == '\n';
+        }
+    }
+}
@@ -0,0 +1,20 @@
+/*
+ * Receives the state transitions of every domain: the local work journal, or the shared queue in distributed mode.
+ */
+package org.example;
+
+import java.io.IOException;
+
+interface WorkTracker {
+
+    void started(String domain) throws IOException;
+
+    void done(DomainScan scan, String note);
+
+    void failed(DomainScan scan, String reason);
+
+    // For domains that end before they have a scan (capture)
+    void done(String domain, String note);
+
+    void failed(String domain, String reason);
+}
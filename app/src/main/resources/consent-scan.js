@@ -0,0 +1,176 @@
+/*
+ * Finds, ranks and clicks the consent banner's accept or reject button in a single call.
+ * Searches the document, every open shadow root and same-origin iframes. Cross-origin iframes that look
+ * like a consent manager cannot be reached from here and are returned for the caller to search next.
+ *
+ * arguments[0]: "accept" or "reject"
+ * returns: {clicked: "<description>"} or {frames: [<iframe elements>]}
+ */
+var mode = arguments[0];
+
+var WORDS = {
+    accept: [
+        ["accept all", 12], ["allow all", 12], ["accept all cookies", 12], ["aceptar todo", 12], ["aceptar todas", 12],
+        ["agree to all", 11], ["i accept", 10], ["accept", 10], ["aceptar", 10], ["acepto", 9], ["agree", 9],
+        ["allow", 7], ["permitir", 7], ["consent", 6], ["got it", 5], ["entendido", 5], ["ok", 4]
+    ],
+    reject: [
+        ["reject all", 12], ["rechazar todo", 12], ["rechazar todas", 12], ["deny all", 11], ["refuse all", 11],
+        ["decline all", 11], ["reject", 10], ["rechazar", 10], ["decline", 9], ["deny", 9], ["refuse", 9],
+        ["only necessary", 8], ["necessary only", 8], ["solo necesarias", 8], ["continue without accepting", 8],
+        ["continuar sin aceptar", 8], ["no, thanks", 7], ["no thanks", 7]
+    ]
+};
+
+// Buttons of widespread consent managers; a match wins over any text heuristic
+var KNOWN = {
+    accept: [
+        "#onetrust-accept-btn-handler", "#didomi-notice-agree-button", "#CybotCookiebotDialogBodyLevelButtonLevelOptinAllowAll",
+        "#CybotCookiebotDialogBodyButtonAccept", ".fc-cta-consent", "#truste-consent-button", "[data-testid='uc-accept-all-button']",
+        ".qc-cmp2-summary-buttons button[mode='primary']", ".cky-btn-accept", ".cc-allow", ".cmplz-accept",
+        "#axeptio_btn_acceptAll", ".iubenda-cs-accept-btn", ".sp_choice_type_11", "#L2AGLb"
+    ],
+    reject: [
+        "#onetrust-reject-all-handler", "#didomi-notice-disagree-button", "#CybotCookiebotDialogBodyButtonDecline",
+        ".fc-cta-do-not-consent", "#truste-consent-required", "[data-testid='uc-deny-all-button']", ".cky-btn-reject",
+        ".cc-deny", ".cmplz-deny", "#axeptio_btn_dismiss", ".iubenda-cs-reject-btn", ".sp_choice_type_13", "#W0wltc"
+    ]
+};
+
+// Buttons that open settings instead of answering the banner
+var SETTINGS = /settings|preferences|customi[sz]e|manage|more options|configur|personaliz|opciones|ajustes/;
+var BANNER = /cookie|consent|gdpr|cmp|privacy|banner|notice|didomi|onetrust|cookiebot|usercentrics/i;
+var CMP_FRAME = /consent|cookie|cmp|privacy|gdpr|sp_message|trustarc|truste|sourcepoint|quantcast|didomi|usercentrics/i;
+var CLICKABLE = "button, a, [role=button], input[type=button], input[type=submit], [onclick]";
+
+var opposite = mode === "accept" ? "reject" : "accept";
+var best = null;
+var frames = [];
+
+function labelOf(el) {
+    var text = el.innerText || el.value || el.getAttribute("aria-label") || el.getAttribute("title") || "";
+    return text.replace(/\s+/g, " ").trim().toLowerCase();
+}
+
+function visible(el) {
+    if (el.disabled || el.getAttribute("aria-disabled") === "true") {
+        return false;
+    }
+    var rect = el.getBoundingClientRect();
+    if (rect.width === 0 || rect.height === 0) {
+        return false;
+    }
+    var style = el.ownerDocument.defaultView.getComputedStyle(el);
+    return style.visibility !== "hidden" && style.display !== "none" && style.opacity !== "0";
+}
+
+function wordScore(label, words) {
+    var score = 0;
+    for (var i = 0; i < words.length; i++) {
+        var word = words[i][0];
+        if (label === word) {
+            score = Math.max(score, words[i][1] * 2);
+        } else if (containsWord(label, word)) {
+            score = Math.max(score, words[i][1]);
+        }
+    }
+    return score;
+}
+
+// Whole words only: "ok" must not match "cookies" or "book", nor "accept" the reject label "continue without accepting"
+function containsWord(label, word) {
+    for (var at = label.indexOf(word); at >= 0; at = label.indexOf(word, at + 1)) {
+        if (!isWordChar(label.charAt(at - 1)) && !isWordChar(label.charAt(at + word.length))) {
+            return true;
+        }
+    }
+    return false;
+}
+
+// Letters of any cased script (so "ñ" and "é" count) and digits; charAt out of range gives ""
+function isWordChar(c) {
+    return c !== "" && (c.toLowerCase() !== c.toUpperCase() || /[0-9_]/.test(c));
+}
+
+// Walks up through shadow roots as well; buttons inside a cookie/consent container are preferred
+function insideBanner(el) {
+    for (var depth = 0; el && depth < 12; depth++) {
+        if (el.id && BANNER.test(el.id) || typeof el.className === "string" && BANNER.test(el.className)) {
+            return true;
+        }
+        el = el.parentElement || (el.getRootNode && el.getRootNode().host);
+    }
+    return false;
+}
+
+function offer(el, score, how) {
+    if (score > 0 && (best === null || score > best.score) && visible(el)) {
+        best = {el: el, score: score, how: how};
+    }
+}
+
+function rank(el) {
+    var label = labelOf(el);
+    // Long texts are paragraphs or links inside the banner, not its buttons
+    if (label.length === 0 || label.length > 40 || SETTINGS.test(label)) {
+        return;
+    }
+    var score = wordScore(label, WORDS[mode]);
+    if (score === 0 || wordScore(label, WORDS[opposite]) >= score) {
+        return;
+    }
+    offer(el, score + (insideBanner(el) ? 5 : 0), "\"" + label + "\"");
+}
+
+function search(root) {
+    var known = KNOWN[mode];
+    for (var k = 0; k < known.length; k++) {
+        var hits = root.querySelectorAll(known[k]);
+        for (var h = 0; h < hits.length; h++) {
+            offer(hits[h], 100, known[k]);
+        }
+    }
+
+    var all = root.querySelectorAll("*");
+    for (var i = 0; i < all.length; i++) {
+        var el = all[i];
+        if (el.matches(CLICKABLE)) {
+            rank(el);
+        }
+        if (el.shadowRoot) {
+            search(el.shadowRoot);
+        }
+        if (el.tagName === "IFRAME") {
+            var doc = null;
+            try {
+                doc = el.contentDocument;
+            } catch (e) {
+                doc = null;
+            }
+            if (doc && doc.documentElement) {
+                search(doc);
+            } else if (CMP_FRAME.test((el.id || "") + " " + (el.name || "") + " " + (el.src || "")) && visible(el)) {
+                frames.push(el);
+            }
+        }
+    }
+}
+
+search(document);
+
+if (best === null) {
+    return {frames: frames};
+}
+
+// Reports every cookie the page can see changing, so the caller can wait until cookie writes stop
+if (window.cookieStore && !window.__scannerCookieWatch) {
+    window.__scannerCookieWatch = true;
+    window.cookieStore.addEventListener("change", function (event) {
+        if (typeof window.__scannerCookieChanged === "function") {
+            window.__scannerCookieChanged(String(event.changed.length + event.deleted.length));
+        }
+    });
+}
+
+best.el.click();
+return {clicked: best.how + " (score " + best.score + ")"};
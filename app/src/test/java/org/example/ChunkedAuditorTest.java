@@ -0,0 +1,95 @@
+/*
+ * Chunk split and verdict merge of the map-reduce audit.
+ */
+package org.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class ChunkedAuditorTest {
+
+    @Test
+    public void bestVerdictOfAnyChunkWins() throws JsonProcessingException {
+        ObjectNode merged = ChunkedAuditor.merge(List.of(
+            chunk("{\"id\": 2, \"verdict\": \"No\"}, {\"id\": 1, \"verdict\": \"Partial\"}"),
+            chunk("{\"id\": 1, \"verdict\": \"Yes\"}, {\"id\": 2, \"verdict\": \"Not Found\"}, {\"id\": 3, \"verdict\": \"Partial\"}")));
+        assertEquals(List.of("1:Yes", "2:No", "3:Partial"), verdicts(merged));
+    }
+
+    @Test
+    public void consentQuestionFoundInOneChunkIsNotOverruledByTheOthers() throws JsonProcessingException {
+        // Only the second chunk contains the sentence about cookies waiting for consent
+        ObjectNode merged = ChunkedAuditor.merge(List.of(
+            chunk("{\"id\": 13, \"verdict\": \"No\"}"),
+            chunk("{\"id\": 13, \"verdict\": \"Yes\", \"evidence\": \"only after consent\"}"),
+            chunk("{\"id\": 13, \"verdict\": \"Not Found\"}")));
+        assertEquals(List.of("13:Yes"), verdicts(merged));
+        assertEquals("only after consent", merged.path("audit_checklist").path(0).path("evidence").asText());
+    }
+
+    @Test
+    public void tiesKeepTheFirstChunk() throws JsonProcessingException {
+        ObjectNode merged = ChunkedAuditor.merge(List.of(
+            chunk("{\"id\": 4, \"verdict\": \"Partial\", \"evidence\": \"first\"}"),
+            chunk("{\"id\": 4, \"verdict\": \"Partial\", \"evidence\": \"second\"}")));
+        assertEquals("first", merged.path("audit_checklist").path(0).path("evidence").asText());
+    }
+
+    @Test
+    public void shortTextIsOneChunk() {
+        assertEquals(List.of("short"), ChunkedAuditor.split("short", 100, 10));
+    }
+
+    @Test
+    public void chunksFitOverlapAndCoverEveryLine() {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            lines.add((i % 40 == 0 ? "## Section " + i : "Line " + i + " of the policy text"));
+        }
+        String text = String.join("\n", lines);
+        int chunkTokens = 100;
+        List<String> chunks = ChunkedAuditor.split(text, chunkTokens, 20);
+
+        assertTrue(chunks.size() > 1);
+        for (String chunk : chunks) {
+            assertTrue("chunk too long: " + chunk.length(), chunk.length() <= chunkTokens * PolicyText.CHARS_PER_TOKEN);
+        }
+        for (String line : lines) {
+            assertTrue("missing: " + line, chunks.stream().anyMatch(chunk -> chunk.lines().anyMatch(line::equals)));
+        }
+        for (int i = 1; i < chunks.size(); i++) {
+            List<String> previous = chunks.get(i - 1).lines().toList();
+            String firstLine = chunks.get(i).lines().filter(l -> !l.endsWith("(continued)")).findFirst().orElseThrow();
+            assertTrue("chunk " + i + " does not overlap the previous one", previous.contains(firstLine));
+        }
+    }
+
+    @Test
+    public void continuedChunksRepeatTheirHeading() {
+        String text = "## Cookies\n" + "A cookie sentence that is long enough.\n".repeat(30);
+        List<String> chunks = ChunkedAuditor.split(text, 50, 0);
+        assertTrue(chunks.size() > 1);
+        for (String chunk : chunks.subList(1, chunks.size())) {
+            assertTrue(chunk, chunk.startsWith("## Cookies (continued)\n"));
+        }
+    }
+
+    private static ObjectNode chunk(String checklist) throws JsonProcessingException {
+        return ComplianceReport.parse("{\"audit_checklist\": [" + checklist + "]}");
+    }
+
+    private static List<String> verdicts(ObjectNode merged) {
+        List<String> verdicts = new ArrayList<>();
+        for (JsonNode question : merged.path("audit_checklist")) {
+            verdicts.add(question.path("id").asInt() + ":" + question.path("verdict").asText());
+        }
+        return verdicts;
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Local scoring of the audit: risk bands, cookie split, checklist validation and the consent override.
+ */
+package org.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class ComplianceReportTest {
+
+    private static final CookieClassifier CLASSIFIER = CookieClassifier.parse(List.of(
+        "[essential]", "PHPSESSID", "[analytics]", "_ga", "[advertising]", "_fbp"));
+
+    private final ComplianceReport report = new ComplianceReport(CLASSIFIER);
+
+    @Test
+    public void riskBandThresholds() {
+        assertEquals("Critical Risk", ComplianceReport.complianceLevel(0, false));
+        assertEquals("Critical Risk", ComplianceReport.complianceLevel(15, false));
+        assertEquals("High Risk", ComplianceReport.complianceLevel(16, false));
+        assertEquals("High Risk", ComplianceReport.complianceLevel(24, false));
+        assertEquals("Moderate Risk", ComplianceReport.complianceLevel(25, false));
+        assertEquals("Moderate Risk", ComplianceReport.complianceLevel(30, false));
+        assertEquals("Low Risk", ComplianceReport.complianceLevel(31, false));
+        assertEquals("Low Risk", ComplianceReport.complianceLevel(ComplianceReport.MAX_SCORE, false));
+    }
+
+    @Test
+    public void cookiesBeforeConsentRuleOutLowRiskOnly() {
+        assertEquals("Moderate Risk", ComplianceReport.complianceLevel(ComplianceReport.MAX_SCORE, true));
+        assertEquals("High Risk", ComplianceReport.complianceLevel(20, true));
+    }
+
+    @Test
+    public void verdictPoints() {
+        assertEquals(2, ComplianceReport.points("Yes"));
+        assertEquals(2, ComplianceReport.points(" yes, clearly"));
+        assertEquals(1, ComplianceReport.points("Partial"));
+        assertEquals(0, ComplianceReport.points("No"));
+        assertEquals(0, ComplianceReport.points("Not Found"));
+    }
+
+    @Test
+    public void allYesScoresTheMaximumAndEssentialCookiesKeepTheConsentVerdict() throws JsonProcessingException {
+        DomainScan scan = scan(List.of(cookie("PHPSESSID", "www.example.com")), List.of());
+        ObjectNode result = complete(scan, allVerdicts("Yes"));
+
+        assertEquals(ComplianceReport.MAX_SCORE, result.path("scorecard").path("total_score").asInt());
+        // Only "Low Risk" is ruled out by cookies before consent, and an essential one still counts as a cookie
+        assertEquals("Moderate Risk", result.path("scorecard").path("compliance_level").asText());
+        assertEquals("Yes", verdict(result, ComplianceReport.CONSENT_QUESTION));
+        assertEquals(0, result.path("non_essential_before_consent").asInt());
+
+        ObjectNode clean = complete(scan(List.of(), List.of(cookie("_ga", ".example.com"))), allVerdicts("Yes"));
+        assertEquals("Low Risk", clean.path("scorecard").path("compliance_level").asText());
+    }
+
+    @Test
+    public void nonEssentialCookieBeforeConsentOverridesTheConsentQuestion() throws JsonProcessingException {
+        DomainScan scan = scan(
+            List.of(cookie("_ga", ".example.com"), cookie("PHPSESSID", "www.example.com")),
+            List.of(cookie("_ga", ".example.com"), cookie("_fbp", ".facebook.com")));
+        ObjectNode result = complete(scan, allVerdicts("Yes"));
+
+        assertEquals("No", verdict(result, ComplianceReport.CONSENT_QUESTION));
+        assertEquals(ComplianceReport.MAX_SCORE - 2, result.path("scorecard").path("total_score").asInt());
+        assertEquals(2, result.path("cookies_set_before_consent").asInt());
+        assertEquals(1, result.path("non_essential_before_consent").asInt());
+        assertTrue(result.path("scorecard").path("priority_actions").path(0).asText().startsWith("Stop setting 1 non-essential cookie(s)"));
+
+        // Cookies seen before consent are listed once, with the ones that only appeared after consent
+        List<String> cookies = new ArrayList<>();
+        for (JsonNode c : result.path("cookies")) {
+            cookies.add(c.path("name").asText() + ":" + c.path("category").asText() + ":"
+                + c.path("set_before_consent").asBoolean() + ":" + c.path("is_third_party").asBoolean());
+        }
+        assertEquals(List.of("_ga:analytics:true:false", "PHPSESSID:essential:true:false", "_fbp:advertising:false:true"), cookies);
+    }
+
+    @Test
+    public void consentQuestionAlreadyNoIsLeftAsIs() throws JsonProcessingException {
+        DomainScan scan = scan(List.of(cookie("_ga", ".example.com")), List.of());
+        ObjectNode result = complete(scan, allVerdicts("No"));
+        assertEquals("No", verdict(result, ComplianceReport.CONSENT_QUESTION));
+        assertFalse(result.path("audit_checklist").path(ComplianceReport.CONSENT_QUESTION - 1).path("notes").asText()
+            .contains("non-essential cookie(s) were set before consent"));
+        assertEquals(0, result.path("scorecard").path("total_score").asInt());
+        assertEquals("Critical Risk", result.path("scorecard").path("compliance_level").asText());
+    }
+
+    @Test
+    public void invalidChecklistEntriesAreDroppedBeforeScoring() throws JsonProcessingException {
+        String llm = "```json\n{\"audit_checklist\": [{\"id\": 1, \"verdict\": \"Yes\"}, {\"id\": 1, \"verdict\": \"Yes\"},"
+            + " {\"id\": 0, \"verdict\": \"Yes\"}, {\"id\": 18, \"verdict\": \"Yes\"}, {\"id\": 2, \"verdict\": \"Partial\"},]}\n```";
+        ObjectNode result = complete(scan(List.of(), List.of()), llm);
+        assertEquals(2, result.path("audit_checklist").size());
+        assertEquals(3, result.path("scorecard").path("total_score").asInt());
+    }
+
+    @Test
+    public void unparseableAndMissingAnswers() {
+        DomainScan scan = scan(List.of(), List.of());
+        assertEquals("not json at all", report.complete(scan, "not json at all"));
+        assertNull(report.complete(scan, null));
+    }
+
+    @Test
+    public void thirdPartyDomains() {
+        assertFalse(ComplianceReport.isThirdParty(".example.com", "example.com"));
+        assertFalse(ComplianceReport.isThirdParty("shop.example.com", "example.com"));
+        assertFalse(ComplianceReport.isThirdParty("example.com", "www.example.com"));
+        assertFalse(ComplianceReport.isThirdParty("", "example.com"));
+        assertTrue(ComplianceReport.isThirdParty(".doubleclick.net", "example.com"));
+        assertTrue(ComplianceReport.isThirdParty("notexample.com", "example.com"));
+    }
+
+    private ObjectNode complete(DomainScan scan, String llm) throws JsonProcessingException {
+        return ComplianceReport.parse(report.complete(scan, llm));
+    }
+
+    private static DomainScan scan(List<App.CookieData> before, List<App.CookieData> after) {
+        DomainScan scan = new DomainScan("https://www.example.com", "www.example.com");
+        scan.cookiesBefore = before;
+        scan.cookiesAfter = after;
+        return scan;
+    }
+
+    private static App.CookieData cookie(String name, String domain) {
+        return new App.CookieData(name, domain, false, true, "/");
+    }
+
+    private static String allVerdicts(String verdict) {
+        List<String> questions = new ArrayList<>();
+        for (int id = 1; id <= ComplianceReport.QUESTIONS; id++) {
+            questions.add("{\"id\": " + id + ", \"question\": \"Question " + id + "\", \"verdict\": \"" + verdict + "\"}");
+        }
+        return "{\"audit_checklist\": [" + String.join(", ", questions) + "]}";
+    }
+
+    private static String verdict(ObjectNode result, int id) {
+        for (JsonNode question : result.path("audit_checklist")) {
+            if (question.path("id").asInt() == id) {
+                return question.path("verdict").asText();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Exact names and prefix rules of the known-cookie table.
+ */
+package org.example;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.List;
+import org.junit.Test;
+
+public class CookieClassifierTest {
+
+    private static final CookieClassifier CLASSIFIER = CookieClassifier.parse(List.of(
+        "# comment",
+        "[essential]",
+        "_gcl",
+        "[analytics]",
+        "_ga",
+        "_ga_*",
+        "",
+        "[ADVERTISING]",
+        "_g*"));
+
+    @Test
+    public void exactNamesMatch() {
+        assertEquals(CookieClassifier.ANALYTICS, CLASSIFIER.classify("_ga"));
+    }
+
+    @Test
+    public void longestPrefixWins() {
+        assertEquals(CookieClassifier.ANALYTICS, CLASSIFIER.classify("_ga_ABC123"));
+        assertEquals(CookieClassifier.ADVERTISING, CLASSIFIER.classify("_gid"));
+    }
+
+    @Test
+    public void exactNameWinsOverAPrefix() {
+        assertEquals(CookieClassifier.ESSENTIAL, CLASSIFIER.classify("_gcl"));
+        assertEquals(CookieClassifier.ADVERTISING, CLASSIFIER.classify("_gcl_au"));
+    }
+
+    @Test
+    public void unknownAndDifferentlyCasedNamesAreOther() {
+        assertEquals(CookieClassifier.OTHER, CLASSIFIER.classify("session"));
+        assertEquals(CookieClassifier.OTHER, CLASSIFIER.classify("_GA"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownCategoryIsRejected() {
+        CookieClassifier.parse(List.of("[marketing]", "_fbp"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nameOutsideASectionIsRejected() {
+        CookieClassifier.parse(List.of("_fbp"));
+    }
+
+    @Test
+    public void bundledTable() throws IOException {
+        CookieClassifier classifier = CookieClassifier.load();
+        assertEquals(CookieClassifier.ESSENTIAL, classifier.classify("PHPSESSID"));
+        assertEquals(CookieClassifier.ANALYTICS, classifier.classify("_ga"));
+        assertEquals(CookieClassifier.ANALYTICS, classifier.classify("_ga_XYZ789"));
+        assertEquals(CookieClassifier.ADVERTISING, classifier.classify("_fbp"));
+        assertEquals(CookieClassifier.ADVERTISING, classifier.classify("_gcl_au"));
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Scores of the Aho-Corasick keyword automaton on small hand-written tables.
+ */
+package org.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import org.junit.Test;
+
+public class KeywordClassifierTest {
+
+    private static final KeywordClassifier CLASSIFIER = KeywordClassifier.parse(List.of(
+        "# comment",
+        "[cookie]",
+        "cookie",
+        "cookies",
+        "cookie-policy",
+        "",
+        "[privacy]",
+        "Privacy",
+        "privacidad",
+        "política"));
+
+    @Test
+    public void overlappingKeywordsAllScore() {
+        // "cookie" and "cookie-policy" both end inside the path
+        KeywordClassifier.Classification c = CLASSIFIER.classify("https://example.com/cookie-policy");
+        assertEquals(6 + 13, c.cookieScore());
+        assertEquals(0, c.privacyScore());
+        assertEquals(6 + 7, CLASSIFIER.classify("https://example.com/cookies").cookieScore());
+    }
+
+    @Test
+    public void matchingIgnoresCase() {
+        assertEquals(7, CLASSIFIER.classify("https://example.com/PRIVACY").privacyScore());
+    }
+
+    @Test
+    public void nonAsciiKeywordsMatch() {
+        KeywordClassifier.Classification c = CLASSIFIER.classify("https://example.es/POLÍTICA-de-privacidad");
+        assertEquals(8 + 10, c.privacyScore());
+        assertTrue(c.isPrivacy());
+        assertFalse(c.isCookie());
+    }
+
+    @Test
+    public void matchesRestartAfterUnknownCharacters() {
+        // '_' and '7' are not in the alphabet of any keyword
+        assertEquals(6, CLASSIFIER.classify("https://example.com/coo_kie/cookie7").cookieScore());
+    }
+
+    @Test
+    public void staticAssetsScoreAQuarter() {
+        assertEquals((6 + 3) / 4, CLASSIFIER.classify("https://example.com/cookie-banner.js").cookieScore());
+        assertEquals((6 + 3) / 4, CLASSIFIER.classify("https://example.com/cookie-banner.js?v=2").cookieScore());
+        assertEquals(6, CLASSIFIER.classify("https://example.com/cookie.js.html").cookieScore());
+    }
+
+    @Test
+    public void keywordInBothSectionsScoresBoth() {
+        KeywordClassifier classifier = KeywordClassifier.parse(List.of("[cookie]", "policy", "[privacy]", "policy"));
+        KeywordClassifier.Classification c = classifier.classify("https://example.com/policy");
+        assertEquals(6, c.cookieScore());
+        assertEquals(6, c.privacyScore());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void keywordOutsideASectionIsRejected() {
+        KeywordClassifier.parse(List.of("cookie"));
+    }
+
+    @Test
+    public void bundledTableClassifiesCommonPolicyUrls() throws IOException {
+        KeywordClassifier classifier = KeywordClassifier.load();
+        assertTrue(classifier.classify("https://www.elmundo.es/politica-de-cookies.html").isCookie());
+        assertTrue(classifier.classify("https://www.example.com/privacy-policy").isPrivacy());
+        assertFalse(classifier.classify("https://www.example.com/deportes/futbol.html").isPrivacy());
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * What PolicyText.fromHtml keeps and drops from a policy page.
+ */
+package org.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class PolicyTextTest {
+
+    @Test
+    public void headingsListsAndTablesKeepTheirStructure() {
+        String html = "<main><h2>Cookies we use</h2><p>We use   cookies.</p>"
+            + "<ul><li>Analytics</li><li>Advertising</li></ul>"
+            + "<table><tr><th>Name</th><th>Purpose</th></tr><tr><td>_ga</td><td>Analytics</td></tr></table></main>";
+        assertEquals("## Cookies we use\nWe use cookies.\n- Analytics\n- Advertising\nName | Purpose\n_ga | Analytics",
+            PolicyText.fromHtml(html));
+    }
+
+    @Test
+    public void siteChromeElementsAreSkipped() {
+        String html = "<nav><a href='/'>Home</a></nav><header>Policy</header>"
+            + "<aside>Related</aside><button>Accept all</button><select><option>ES</option></select>"
+            + "<dialog>Consent banner</dialog><footer>© Example</footer>";
+        assertEquals("Policy", PolicyText.fromHtml(html));
+    }
+
+    @Test
+    public void scriptsAndStylesAreSkippedEvenWithAngleBrackets() {
+        String html = "<p>Before</p><script>if (a < b && c > d) { document.write('<p>x</p>'); }</script>"
+            + "<STYLE>p > span { color: red }</STYLE><template><p>Hidden</p></template><p>After</p>";
+        assertEquals("Before\nAfter", PolicyText.fromHtml(html));
+    }
+
+    @Test
+    public void skippedElementsNestedInThemselvesAreSkippedWhole() {
+        String html = "<nav><ul><li><nav>Inner</nav> still menu</li></ul></nav><p>Policy text</p>";
+        assertEquals("Policy text", PolicyText.fromHtml(html));
+    }
+
+    @Test
+    public void navigationRolesAreSkipped() {
+        String html = "<div role=\"navigation\"><div>Menu</div></div><div role='banner'>Logo</div>"
+            + "<div role=contentinfo>Footer</div><div role=\"main\">Kept</div>";
+        assertEquals("Kept", PolicyText.fromHtml(html));
+    }
+
+    @Test
+    public void selfClosingAndVoidElementsDoNotStartASkip() {
+        String html = "<p>One<br>Two</p><svg/><iframe src='x'/><p>Three</p>";
+        assertEquals("One\nTwo\nThree", PolicyText.fromHtml(html));
+    }
+
+    @Test
+    public void commentsAreSkippedAndEntitiesDecoded() {
+        String html = "<p>A<!-- <p>hidden</p> -->&amp;B&nbsp;&#233;&#x20AC;&unknown;</p>";
+        assertEquals("A&B é€&unknown;", PolicyText.fromHtml(html));
+    }
+
+    @Test
+    public void longRepeatedParagraphsAreDroppedShortOnesKept() {
+        String repeated = "This paragraph is repeated on the page.";
+        String html = "<p>" + repeated + "</p><p>Yes</p><p>" + repeated + "</p><p>Yes</p>";
+        assertEquals(repeated + "\nYes\nYes", PolicyText.fromHtml(html));
+    }
+
+    @Test
+    public void emptyInput() {
+        assertEquals("", PolicyText.fromHtml(null));
+        assertEquals("", PolicyText.fromHtml(""));
+    }
+
+    @Test
+    public void truncateCutsAtALineBoundary() {
+        String text = "a".repeat(40) + "\n" + "b".repeat(200);
+        String cut = PolicyText.truncate(text, 30);
+        assertTrue(cut.startsWith("a".repeat(40) + "\n[..."));
+        assertTrue(cut.length() <= 30 * PolicyText.CHARS_PER_TOKEN);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * UrlExtractor must find the same URLs however the body is split into reads.
+ */
+package org.example;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import org.junit.Test;
+
+public class UrlExtractorTest {
+
+    private static final String BODY = "<a href=\"https://example.com/privacy\">x</a> "
+        + "var u='https://example.com/cookies?lang=es';\\nhttps://cdn.example.com/a.js\n"
+        + "not a link: http://plain.example.com and httpsx://nope https:// https://example.com/end";
+
+    private static final List<String> EXPECTED = List.of(
+        "https://example.com/privacy", "https://example.com/cookies?lang=es",
+        "https://cdn.example.com/a.js", "https://example.com/end");
+
+    @Test
+    public void findsUrlsAndCutsAtQuotesWhitespaceAndBackslashes() throws IOException {
+        assertEquals(EXPECTED, List.copyOf(scan(BODY, Integer.MAX_VALUE)));
+    }
+
+    @Test
+    public void tinyReadsDoNotChangeTheResult() throws IOException {
+        for (int chunk = 1; chunk <= 9; chunk++) {
+            assertEquals("chunk size " + chunk, EXPECTED, List.copyOf(scan(BODY, chunk)));
+        }
+    }
+
+    @Test
+    public void urlCrossingTheInternalBufferBoundary() throws IOException {
+        // The extractor reads 8192 bytes at a time; the prefix and the URL both straddle that boundary
+        for (int padding = 8185; padding <= 8195; padding++) {
+            String body = "x".repeat(padding) + " https://example.com/privacy-policy \"";
+            assertEquals("padding " + padding, Set.of("https://example.com/privacy-policy"), scan(body, Integer.MAX_VALUE));
+        }
+    }
+
+    @Test
+    public void urlsDoNotContinueIntoTheNextBody() throws IOException {
+        UrlExtractor extractor = new UrlExtractor();
+        extractor.scan(stream("see https://example.com/pri", Integer.MAX_VALUE));
+        extractor.scan(stream("vacy and more", Integer.MAX_VALUE));
+        assertEquals(Set.of("https://example.com/pri"), extractor.urls());
+    }
+
+    @Test
+    public void overlongCandidatesAreDropped() throws IOException {
+        String blob = "https://example.com/" + "a".repeat(3000);
+        Set<String> urls = scan(blob + " https://example.com/ok", Integer.MAX_VALUE);
+        assertEquals(Set.of("https://example.com/ok"), urls);
+    }
+
+    @Test
+    public void clearForgetsUrlsAndAPartialPrefix() throws IOException {
+        UrlExtractor extractor = new UrlExtractor();
+        extractor.scan(stream("https://example.com/a", Integer.MAX_VALUE));
+        extractor.clear();
+        assertTrue(extractor.urls().isEmpty());
+        extractor.scan(stream("https://example.com/b", Integer.MAX_VALUE));
+        assertEquals(Set.of("https://example.com/b"), extractor.urls());
+    }
+
+    private static Set<String> scan(String body, int maxRead) throws IOException {
+        UrlExtractor extractor = new UrlExtractor();
+        extractor.scan(stream(body, maxRead));
+        return extractor.urls();
+    }
+
+    // Hands out at most maxRead bytes per read call, like a network stream
+    private static InputStream stream(String body, int maxRead) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, maxRead));
+            }
+        };
+    }
+}
@@ -29,6 +29,33 @@ app.get('/api/health', (req, res) => {
     res.json({ status: 'ok' });
 });
 
+// Dashboard and plugin send "www.elmundo.es", "elmundo.es" or a full URL; audits.site holds the bare host
+const siteOf = (input) => {
+    let host = input.trim().toLowerCase();
+    try {
+        host = new URL(host.includes('://') ? host : `https://${host}`).hostname;
+    } catch (e) {
+        // Keep the input as it is
+    }
+    return host.startsWith('www.') ? host.slice(4) : host;
+};
+
+// Results written before the scanner validated them (some backfilled ones too) may be wrapped in markdown
+const parseResults = (raw) => {
+    let jsonString = raw;
+    if (jsonString.startsWith('```json')) {
+        jsonString = jsonString.replace(/^```json/, '').replace(/```$/, '');
+    } else if (jsonString.startsWith('```')) {
+        jsonString = jsonString.replace(/^```/, '').replace(/```$/, '');
+    }
+    try {
+        return JSON.parse(jsonString);
+    } catch (e) {
+        console.error("Failed to parse JSON content from DB:", e);
+        return { raw, error: "Failed to parse JSON" };
+    }
+};
+
 // Get scan results for a specific domain
 app.get('/api/scan/:domain', async (req, res) => {
     const domain = req.params.domain;
@@ -37,39 +64,45 @@ app.get('/api/scan/:domain', async (req, res) => {
     }
 
     try {
-        // We look for the most recent result for this hostname
+        // Latest validated audit of the site, found through the audits.site index. Versions grow per rescan,
+        // created_at alone can tie or go backwards for backfilled rows.
         const [rows] = await promisePool.query(
+            `SELECT h.id, h.hostname, h.version, h.created_at, h.results FROM audits a
+             JOIN host_results h ON h.hostname = a.hostname AND h.version = a.version
+             WHERE a.site = ? ORDER BY a.version DESC, h.id DESC LIMIT 1`,
+            [siteOf(domain)]
+        );
+        if (rows.length > 0) {
+            // A newer rescan of the host that could not be scored is stored raw only; it is still the latest result
+            const [newer] = await promisePool.query(
+                'SELECT * FROM host_results WHERE hostname = ? AND version > ? ORDER BY version DESC, id DESC LIMIT 1',
+                [rows[0].hostname, rows[0].version]
+            );
+            const result = newer.length > 0 ? newer[0] : rows[0];
+            return res.json({
+                id: result.id,
+                hostname: result.hostname,
+                created_at: result.created_at,
+                data: parseResults(result.results)
+            });
+        }
+
+        // Not normalized yet: older rows, or an answer that could not be scored
+        const [legacy] = await promisePool.query(
             'SELECT * FROM host_results WHERE hostname = ? OR hostname LIKE ? ORDER BY created_at DESC LIMIT 1',
             [domain, `%${domain}%`]
         );
 
-        if (rows.length === 0) {
+        if (legacy.length === 0) {
             return res.status(404).json({ message: 'No scan results found for this domain.' });
         }
 
-        const result = rows[0];
-
-        // The 'results' column contains the JSON string from the Java Scanner
-        let parsedResults;
-        try {
-            // Clean up the string if it has markdown code blocks
-            let jsonString = result.results;
-            if (jsonString.startsWith('```json')) {
-                jsonString = jsonString.replace(/^```json/, '').replace(/```$/, '');
-            } else if (jsonString.startsWith('```')) {
-                jsonString = jsonString.replace(/^```/, '').replace(/```$/, '');
-            }
-            parsedResults = JSON.parse(jsonString);
-        } catch (e) {
-            console.error("Failed to parse JSON content from DB:", e);
-            parsedResults = { raw: result.results, error: "Failed to parse JSON" };
-        }
-
+        const result = legacy[0];
         res.json({
             id: result.id,
             hostname: result.hostname,
             created_at: result.created_at,
-            data: parsedResults
+            data: parseResults(result.results)
         });
 
     } catch (err) {
@@ -78,6 +111,23 @@ app.get('/api/scan/:domain', async (req, res) => {
     }
 });
 
+// Sites whose latest audit saw a cookie with this name before consent, e.g. /api/cookies/_ga/before-consent
+app.get('/api/cookies/:name/before-consent', async (req, res) => {
+    try {
+        const [rows] = await promisePool.query(
+            `SELECT a.site, a.hostname, a.version, a.created_at, c.domain, c.category, c.third_party
+             FROM audit_cookies c
+             JOIN latest_audits a ON a.hostname = c.hostname AND a.version = c.version
+             WHERE c.name = ? AND c.set_before_consent ORDER BY a.site`,
+            [req.params.name]
+        );
+        res.json({ cookie: req.params.name, sites: rows });
+    } catch (err) {
+        console.error('Database error:', err);
+        res.status(500).json({ error: 'Internal Server Error' });
+    }
+});
+
 app.listen(PORT, () => {
     console.log(`Server running at http://localhost:${PORT}/`);
     console.log(`Debug: Connecting to DB at ${dbConfig.host} as ${dbConfig.user}`);